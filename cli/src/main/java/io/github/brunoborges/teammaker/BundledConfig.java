@@ -0,0 +1,50 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The configuration bundled with the CLI, parsed once.
+ * <p>
+ * The native image initializes this class at build time (see the
+ * {@code native} profile), so the parsed configuration lives in the image
+ * heap and the executable reaches its first draw without reading or parsing
+ * any JSON. On the JVM the resource is parsed on first use. The loader keeps
+ * players in an on-heap list, which, unlike off-heap buffers, can be stored
+ * in the image heap.
+ */
+final class BundledConfig {
+
+    /**
+     * Name of the bundled configuration resource.
+     */
+    static final String RESOURCE = "team-config.json";
+
+    private static final TeamMakerConfig CONFIG = load();
+
+    private BundledConfig() {
+    }
+
+    /**
+     * Get the pre-parsed configuration for a resource name.
+     *
+     * @param resourceName the requested classpath resource
+     * @return the bundled configuration, or {@code null} if the resource is
+     *         not the bundled one or could not be loaded
+     */
+    static TeamMakerConfig forResource(String resourceName) {
+        return RESOURCE.equals(resourceName) ? CONFIG : null;
+    }
+
+    private static TeamMakerConfig load() {
+        try (InputStream in = BundledConfig.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                return null;
+            }
+            return new StreamingConfigLoader().load(in);
+        } catch (IOException | IllegalArgumentException e) {
+            // Loading the resource again at run time reports the problem
+            return null;
+        }
+    }
+}
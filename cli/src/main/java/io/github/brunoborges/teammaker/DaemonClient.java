@@ -0,0 +1,112 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Thin client behind {@code teammaker --client}: forwards the arguments to a
+ * {@link DaemonServer} and streams its output back. See the server for the
+ * protocol.
+ */
+final class DaemonClient {
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Run an invocation on the daemon.
+     *
+     * @param socket path of the daemon's socket
+     * @param args   the arguments, as the daemon should parse them
+     * @param colors whether pretty output should use ANSI colors
+     * @param out    receives the daemon's standard output
+     * @param err    receives the daemon's standard error
+     * @return the daemon's exit code, or empty if no daemon is listening
+     * @throws IOException if the connection breaks during the invocation
+     */
+    static OptionalInt forward(Path socket, List<String> args, boolean colors, PrintStream out, PrintStream err)
+            throws IOException {
+        SocketChannel channel = connect(socket);
+        if (channel == null) {
+            return OptionalInt.empty();
+        }
+        try (channel;
+             DataOutputStream request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+             DataInputStream response = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)))) {
+            request.writeInt(DaemonServer.VERSION);
+            request.writeUTF(Path.of("").toAbsolutePath().toString());
+            request.writeBoolean(colors);
+            request.writeInt(args.size());
+            for (String arg : args) {
+                request.writeUTF(arg);
+            }
+            request.flush();
+
+            byte[] buffer = new byte[8192];
+            while (true) {
+                byte type = response.readByte();
+                if (type == DaemonServer.EXIT) {
+                    out.flush();
+                    err.flush();
+                    return OptionalInt.of(response.readInt());
+                }
+                PrintStream target = type == DaemonServer.STDERR ? err : out;
+                int remaining = response.readInt();
+                while (remaining > 0) {
+                    int read = response.read(buffer, 0, Math.min(remaining, buffer.length));
+                    if (read < 0) {
+                        throw new IOException("Daemon closed the connection mid-frame");
+                    }
+                    target.write(buffer, 0, read);
+                    remaining -= read;
+                }
+                target.flush();
+            }
+        }
+    }
+
+    /**
+     * Connect to a daemon, after checking that the socket belongs to the
+     * current user so nothing is forwarded to a socket planted by another.
+     *
+     * @param socket path of the daemon's socket
+     * @return a connected channel, or null if no daemon is listening
+     * @throws IOException if the socket belongs to another user or connecting
+     *                     fails for another reason
+     */
+    static SocketChannel connect(Path socket) throws IOException {
+        UserPrincipal owner;
+        try {
+            owner = Files.getOwner(socket);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!owner.equals(DaemonServer.currentUser(socket))) {
+            throw new IOException("Daemon socket " + socket + " belongs to " + owner.getName());
+        }
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            return channel;
+        } catch (SocketException e) {
+            // Missing socket file or nobody accepting on it
+            channel.close();
+            return null;
+        }
+    }
+}
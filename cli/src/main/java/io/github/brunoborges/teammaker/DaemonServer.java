@@ -0,0 +1,299 @@
+package io.github.brunoborges.teammaker;
+
+import picocli.CommandLine;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resident server behind {@code teammaker --daemon}.
+ * <p>
+ * The daemon listens on a Unix domain socket and runs each invocation that
+ * {@link DaemonClient} forwards in-process, on its own virtual thread, so
+ * scripted callers skip JVM startup and hit already compiled code. Output is
+ * streamed back in frames as it is produced.
+ * <p>
+ * The socket lives in a directory that only its owner can enter, by default
+ * {@code $XDG_RUNTIME_DIR} or {@code ~/.teammaker}, so other users can
+ * neither connect to it nor bind its name first.
+ * <p>
+ * Protocol, all integers big-endian and strings in modified UTF-8:
+ * <pre>
+ * request:  int version, UTF working directory, boolean colors, int argc, argc x UTF argument
+ * response: (byte STDOUT|STDERR, int length, length x byte)* byte EXIT, int exit code
+ * </pre>
+ */
+final class DaemonServer implements Closeable {
+
+    static final int VERSION = 1;
+    static final byte EXIT = 0;
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+
+    /**
+     * Upper bound on forwarded arguments, against malformed requests.
+     */
+    static final int MAX_ARGS = 1024;
+
+    private static final int WARM_UP_DRAWS = 20_000;
+
+    private static final Set<PosixFilePermission> SHARED = Set.of(
+            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_EXECUTE,
+            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_EXECUTE);
+
+    private final Path socket;
+    private final ServerSocketChannel server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Bind the socket. Its directory is created private to the user if
+     * missing. A socket file left behind by a daemon that is no longer
+     * running is replaced.
+     *
+     * @param socket path of the Unix domain socket
+     * @throws IOException if the socket's directory is accessible to other
+     *                     users, another daemon is listening on the socket or
+     *                     binding fails
+     */
+    DaemonServer(Path socket) throws IOException {
+        this.socket = socket.toAbsolutePath();
+        checkPrivate(createPrivateDirectory(this.socket.getParent()));
+        if (Files.exists(this.socket)) {
+            try (SocketChannel probe = DaemonClient.connect(this.socket)) {
+                if (probe != null) {
+                    throw new IOException("A daemon is already listening on " + this.socket);
+                }
+            }
+            Files.delete(this.socket);
+        }
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(this.socket));
+        try {
+            // The directory already keeps others out; this guards a socket
+            // that is later moved or whose directory is opened up
+            Files.setPosixFilePermissions(this.socket, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system; rely on the directory permissions
+        }
+    }
+
+    /**
+     * @return the socket in {@code $XDG_RUNTIME_DIR}, or in {@code ~/.teammaker}
+     *         when no runtime directory is set
+     */
+    static Path defaultSocket() {
+        String runtimeDirectory = System.getenv("XDG_RUNTIME_DIR");
+        Path directory = runtimeDirectory != null && !runtimeDirectory.isEmpty()
+                ? Path.of(runtimeDirectory)
+                : Path.of(System.getProperty("user.home"), ".teammaker");
+        return directory.resolve("teammaker.sock");
+    }
+
+    /**
+     * @param file a file
+     * @return the user running this process, as a principal of the file's
+     *         file system
+     * @throws IOException if the user cannot be looked up
+     */
+    static UserPrincipal currentUser(Path file) throws IOException {
+        return file.getFileSystem().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+    }
+
+    private static Path createPrivateDirectory(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            return directory;
+        }
+        try {
+            return Files.createDirectories(directory,
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (UnsupportedOperationException e) {
+            return Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * @param directory the socket's directory
+     * @throws IOException if the directory belongs to another user or other
+     *                     users may enter it
+     */
+    private static void checkPrivate(Path directory) throws IOException {
+        UserPrincipal owner = Files.getOwner(directory);
+        if (!owner.equals(currentUser(directory))) {
+            throw new IOException("Socket directory " + directory + " belongs to " + owner.getName());
+        }
+        try {
+            Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(directory);
+            permissions.retainAll(SHARED);
+            if (!permissions.isEmpty()) {
+                throw new IOException("Socket directory " + directory
+                        + " must be private to its owner (chmod 700), but allows "
+                        + PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)));
+            }
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system; the owner check has to do
+        }
+    }
+
+    Path getSocket() {
+        return socket;
+    }
+
+    /**
+     * Warm up the engine, then accept connections until the daemon is closed.
+     */
+    void run() {
+        warmUp();
+        Thread hook = new Thread(this::close);
+        Runtime.getRuntime().addShutdownHook(hook);
+        try {
+            while (true) {
+                SocketChannel channel = server.accept();
+                executor.submit(() -> serve(channel));
+            }
+        } catch (ClosedChannelException e) {
+            // Closed by close()
+        } catch (IOException e) {
+            System.err.println("Daemon stopped: " + e.getMessage());
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    /**
+     * Stop accepting connections and remove the socket file. Invocations in
+     * progress run to completion.
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+            Files.deleteIfExists(socket);
+        } catch (IOException e) {
+            // Nothing left to clean up
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Run one forwarded invocation.
+     */
+    void serve(SocketChannel channel) {
+        try (channel;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             DataOutputStream frames = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            if (in.readInt() != VERSION) {
+                return;
+            }
+            Path workingDirectory = Path.of(in.readUTF());
+            boolean colors = in.readBoolean();
+            int argc = in.readInt();
+            if (argc < 0 || argc > MAX_ARGS) {
+                return;
+            }
+            String[] args = new String[argc];
+            for (int i = 0; i < argc; i++) {
+                args[i] = in.readUTF();
+            }
+
+            PrintStream out = new PrintStream(new FrameOutputStream(frames, STDOUT), false, StandardCharsets.UTF_8);
+            PrintStream err = new PrintStream(new FrameOutputStream(frames, STDERR), false, StandardCharsets.UTF_8);
+            CommandLine commandLine = new CommandLine(new TeamMakerApp(out, err, workingDirectory, colors));
+            PrintWriter usageOut = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), true);
+            PrintWriter usageErr = new PrintWriter(new OutputStreamWriter(err, StandardCharsets.UTF_8), true);
+            commandLine.setOut(usageOut);
+            commandLine.setErr(usageErr);
+            int exitCode = commandLine.execute(args);
+            usageOut.flush();
+            usageErr.flush();
+            out.flush();
+            err.flush();
+            synchronized (frames) {
+                frames.writeByte(EXIT);
+                frames.writeInt(exitCode);
+                frames.flush();
+            }
+        } catch (IOException e) {
+            // The client went away; nothing to report to
+        }
+    }
+
+    /**
+     * Draw the default roster until the engine is compiled, so the first
+     * clients already get warm latency.
+     */
+    private static void warmUp() {
+        DrawContext context = new DrawContext(new TeamMaker().getDefaultPlayers(), 2);
+        for (int i = 0; i < WARM_UP_DRAWS; i++) {
+            context.draw();
+        }
+        new TeamResultFormatter(false, false, Integer.MAX_VALUE, false)
+                .printResults(context.toResult(), new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Sends everything written to it as frames of one type. Writes are
+     * buffered by the enclosing {@link PrintStream} and the frame stream, and
+     * reach the client whenever the application flushes.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream frames;
+        private final byte type;
+
+        FrameOutputStream(DataOutputStream frames, byte type) {
+            this.frames = frames;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            synchronized (frames) {
+                frames.writeByte(type);
+                frames.writeInt(length);
+                frames.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (frames) {
+                frames.flush();
+            }
+        }
+    }
+}
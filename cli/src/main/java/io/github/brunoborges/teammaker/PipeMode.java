@@ -0,0 +1,148 @@
+package io.github.brunoborges.teammaker;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Draws a stream of rosters read as newline-delimited JSON.
+ * <p>
+ * Every non-blank input line is a configuration document in the same shape
+ * as {@code team-config.json}. Each one is drawn on its own virtual thread
+ * and produces exactly one output line, in input order. At most
+ * {@code parallelism} rosters are drawn at once, and only a fixed window of
+ * rosters is in flight, so memory stays constant however long the input is.
+ */
+class PipeMode {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final int parallelism;
+    private final int maxAttempts;
+    private final int window;
+    private final StreamingConfigLoader loader = new StreamingConfigLoader();
+
+    /**
+     * @param parallelism maximum number of rosters drawn at the same time
+     * @param maxAttempts maximum number of draws per roster until a balanced one is found
+     */
+    PipeMode(int parallelism, int maxAttempts) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.maxAttempts = maxAttempts;
+        // Some slack beyond the parallelism so a slow roster does not idle the others
+        this.window = parallelism * 4;
+    }
+
+    /**
+     * Read rosters until the end of the input, writing one result per roster.
+     *
+     * @param in  newline-delimited configuration documents
+     * @param out destination of the newline-delimited results
+     * @return 0 if every roster was drawn, 1 if any line failed
+     * @throws IOException if reading the input or writing the output fails
+     */
+    int run(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        Semaphore permits = new Semaphore(parallelism);
+        Deque<Future<Line>> pending = new ArrayDeque<>(window);
+        boolean failed = false;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String text;
+            int lineNumber = 0;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                if (pending.size() == window) {
+                    failed |= write(pending.removeFirst(), writer);
+                }
+                int number = lineNumber;
+                String document = text;
+                pending.addLast(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return draw(number, document);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            while (!pending.isEmpty()) {
+                failed |= write(pending.removeFirst(), writer);
+            }
+        }
+        writer.flush();
+        return failed ? 1 : 0;
+    }
+
+    private static boolean write(Future<Line> future, Writer writer) throws IOException {
+        Line line;
+        try {
+            line = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Pipe mode was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Drawing a roster failed unexpectedly", e.getCause());
+        }
+        writer.write(line.json());
+        writer.write('\n');
+        // Keep downstream consumers fed while later rosters are still drawing
+        writer.flush();
+        return line.failed();
+    }
+
+    private Line draw(int lineNumber, String document) throws IOException {
+        TeamMakerResult result = null;
+        String error = null;
+        try {
+            TeamMakerConfig config = loader.load(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+            DrawContext context = new DrawContext(config);
+            context.drawUntilBalanced(maxAttempts);
+            result = context.toResult();
+        } catch (IOException | RuntimeException e) {
+            error = e.getMessage();
+        }
+
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = JSON.createGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeNumberField("line", lineNumber);
+            if (result != null) {
+                JsonResultWriter.writeFields(generator, result);
+            } else {
+                generator.writeStringField("error", error);
+            }
+            generator.writeEndObject();
+        }
+        return new Line(json.toString(), result == null);
+    }
+
+    /**
+     * One rendered output line.
+     */
+    private record Line(String json, boolean failed) {
+    }
+}
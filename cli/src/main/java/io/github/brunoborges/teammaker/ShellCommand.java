@@ -0,0 +1,71 @@
+package io.github.brunoborges.teammaker;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.ParentCommand;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * The {@code teammaker shell} subcommand: loads a configuration once and
+ * starts an interactive {@link ShellSession} on standard input.
+ */
+@Command(
+    name = "shell",
+    mixinStandardHelpOptions = true,
+    description = "Edit the roster and redraw interactively, keeping the compiled roster in memory"
+)
+class ShellCommand implements Callable<Integer> {
+
+    @ParentCommand
+    private TeamMakerApp app;
+
+    @Parameters(
+        index = "0",
+        arity = "0..1",
+        description = "JSON or binary configuration file path (default: the bundled configuration)"
+    )
+    private String configFile;
+
+    @Option(
+        names = {"-d", "--default"},
+        description = "Start from the default hard-coded players"
+    )
+    private boolean useDefault = false;
+
+    @Override
+    public Integer call() throws Exception {
+        try {
+            if (app.isRemote()) {
+                throw new IllegalArgumentException("shell cannot be used through the daemon");
+            }
+            ShellSession session = new ShellSession(loadConfig(), app.out(), app.colors());
+            session.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+            return 0;
+        } catch (Exception e) {
+            app.err().println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private TeamMakerConfig loadConfig() throws Exception {
+        if (configFile != null) {
+            return JsonConfigLoader.loadFromFile(app.resolve(configFile));
+        }
+        TeamMakerConfig bundled = BundledConfig.forResource(BundledConfig.RESOURCE);
+        if (!useDefault && bundled != null) {
+            return bundled;
+        }
+        List<Player> players = new TeamMaker().getDefaultPlayers();
+        List<String> teamNames = new ArrayList<>();
+        for (int i = 0; i < players.size() / 2; i++) {
+            teamNames.add(TeamMaker.teamName(null, i));
+        }
+        return new TeamMakerConfig(players, teamNames, null);
+    }
+}
@@ -0,0 +1,414 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * State and commands of an interactive {@code teammaker shell} session.
+ * <p>
+ * The configuration is loaded and validated once. Edits check only the
+ * player they touch, and the compiled {@link DrawContext} is kept between
+ * draws and rebuilt only after the roster changed, so every command answers
+ * without reloading or re-validating the whole configuration.
+ * <p>
+ * Adding, removing and rescoring players repairs the last draw with a
+ * {@link TeamRepair} instead of discarding it: only the players needed to
+ * fill vacancies and restore balance move. Changes that leave the roster
+ * uneven are held until it can be split again. Draws with together, apart
+ * or quota constraints, and changes to pins or teams, need a new draw.
+ */
+class ShellSession {
+
+    static final String PROMPT = "teammaker> ";
+
+    private static final int MAX_ATTEMPTS = TeamMakerBatch.DEFAULT_MAX_ATTEMPTS;
+    private static final String HELP = """
+            Commands:
+              add <name> <score>      add a player
+              remove <name>           remove a player
+              rescore <name> <score>  change a player's score
+              pin <name> = <team>     always put a player on a team
+              unpin <name>            let a pinned player go to any team
+              players                 list the roster
+              teams <count>           draw into a number of alphabetically named teams
+              draw                    draw balanced teams
+              lock                    keep the current teams; edits and draws are refused
+              unlock                  allow edits and draws again
+              export <file>           write the current teams as .json, .csv or .ndjson
+              save <file>             write the roster as a JSON configuration
+              help                    show this help
+              quit                    leave the shell
+            """;
+
+    private final PrintStream out;
+    private final TeamResultFormatter formatter;
+    private final TeamMakerConfig.ScoreScale scoreScale;
+    private final FixedPointScale scale;
+    private final Random random = new Random();
+    private final List<Player> players;
+    private final Map<String, String> pins;
+    private final List<List<String>> together;
+    private final List<List<String>> apart;
+    private final Map<String, List<String>> tags;
+    private final Map<String, TeamMakerConfig.Quota> quotas;
+    private List<String> teamNames;
+
+    private DrawContext context;
+    private TeamMakerResult result;
+    private TeamRepair repair;
+    private List<Player> repairedRoster;
+    private boolean locked;
+
+    /**
+     * @param config a configuration; it is validated once here
+     * @param out    destination of all output
+     * @param colors whether drawn teams are printed with ANSI colors
+     */
+    ShellSession(TeamMakerConfig config, PrintStream out, boolean colors) {
+        config.validate();
+        this.out = out;
+        this.formatter = new TeamResultFormatter(false, false, Integer.MAX_VALUE, colors);
+        this.scoreScale = config.getScoreScale();
+        this.scale = config.fixedPointScale();
+        this.players = new ArrayList<>(config.getPlayers());
+        this.teamNames = List.copyOf(config.getTeamNames());
+        this.pins = new LinkedHashMap<>(config.getPins());
+        this.together = new ArrayList<>(config.getTogether());
+        this.apart = new ArrayList<>(config.getApart());
+        this.tags = new LinkedHashMap<>(config.getTags());
+        this.quotas = config.getQuotas();
+    }
+
+    /**
+     * Read and execute commands until {@code quit} or the end of the input.
+     *
+     * @param in the commands, one per line
+     * @throws IOException if reading the input fails
+     */
+    void run(BufferedReader in) throws IOException {
+        out.println("TeamMaker shell: " + players.size() + " players, " + teamNames.size()
+                + " teams. Type 'help' for commands.");
+        String line;
+        do {
+            out.print(PROMPT);
+            out.flush();
+            line = in.readLine();
+        } while (line != null && execute(line));
+        out.println();
+    }
+
+    /**
+     * Execute one command line. Errors are printed, not thrown.
+     *
+     * @param line the command and its arguments
+     * @return false if the session should end
+     */
+    boolean execute(String line) {
+        String[] words = line.trim().split("\\s+", 2);
+        String command = words[0].toLowerCase(Locale.ROOT);
+        String arguments = words.length > 1 ? words[1] : "";
+        try {
+            switch (command) {
+                case "" -> { }
+                case "add" -> add(arguments);
+                case "remove" -> remove(arguments);
+                case "rescore" -> rescore(arguments);
+                case "pin" -> pin(arguments);
+                case "unpin" -> unpin(arguments);
+                case "players" -> listPlayers();
+                case "teams" -> setTeamCount(arguments);
+                case "draw" -> draw();
+                case "lock" -> lock();
+                case "unlock" -> unlock();
+                case "export" -> export(arguments);
+                case "save" -> save(arguments);
+                case "help" -> out.print(HELP);
+                case "quit", "exit" -> {
+                    return false;
+                }
+                default -> throw new IllegalArgumentException("Unknown command '" + command + "', type 'help' for commands");
+            }
+        } catch (IllegalArgumentException | IllegalStateException | IOException e) {
+            out.println("Error: " + e.getMessage());
+        }
+        out.flush();
+        return true;
+    }
+
+    private void add(String arguments) {
+        checkUnlocked();
+        int split = arguments.lastIndexOf(' ');
+        if (split < 0) {
+            throw new IllegalArgumentException("Usage: add <name> <score>");
+        }
+        String name = arguments.substring(0, split).trim();
+        double score = parseScore(name, arguments.substring(split + 1));
+        if (indexOf(name) >= 0) {
+            throw new IllegalArgumentException("Player " + name + " is already in the roster");
+        }
+        players.add(new Player(name, score));
+        out.println("Added " + name + " (" + players.size() + " players)");
+        rosterChanged();
+    }
+
+    private void remove(String name) {
+        checkUnlocked();
+        players.remove(require(name.trim()));
+        pins.remove(name.trim());
+        forget(together, name.trim());
+        forget(apart, name.trim());
+        tags.replaceAll((tag, names) -> names.stream().filter(n -> !n.equals(name.trim())).toList());
+        out.println("Removed " + name.trim() + " (" + players.size() + " players)");
+        rosterChanged();
+    }
+
+    private void rescore(String arguments) {
+        checkUnlocked();
+        int split = arguments.lastIndexOf(' ');
+        if (split < 0) {
+            throw new IllegalArgumentException("Usage: rescore <name> <score>");
+        }
+        String name = arguments.substring(0, split).trim();
+        int index = require(name);
+        double score = parseScore(name, arguments.substring(split + 1));
+        players.set(index, new Player(name, score));
+        out.println("Rescored " + name + " to " + score);
+        rosterChanged();
+    }
+
+    private void pin(String arguments) {
+        checkUnlocked();
+        int split = arguments.indexOf('=');
+        if (split < 0) {
+            throw new IllegalArgumentException("Usage: pin <name> = <team>");
+        }
+        String name = arguments.substring(0, split).trim();
+        String team = arguments.substring(split + 1).trim();
+        require(name);
+        if (!teamNames.contains(team)) {
+            throw new IllegalArgumentException("No team named " + team);
+        }
+        pins.put(name, team);
+        rulesChanged();
+        out.println("Pinned " + name + " to " + team);
+    }
+
+    private void unpin(String name) {
+        checkUnlocked();
+        if (pins.remove(name.trim()) == null) {
+            throw new IllegalArgumentException(name.trim() + " is not pinned");
+        }
+        rulesChanged();
+        out.println("Unpinned " + name.trim());
+    }
+
+    private void listPlayers() {
+        for (Player player : players) {
+            String team = pins.get(player.name());
+            out.println("  " + player.name() + " (" + player.score() + ")" + (team != null ? " pinned to " + team : ""));
+        }
+        out.println(players.size() + " players, " + teamNames.size() + " teams");
+    }
+
+    private void setTeamCount(String arguments) {
+        checkUnlocked();
+        int count;
+        try {
+            count = Integer.parseInt(arguments.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Usage: teams <count>");
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("Team count must be at least 1");
+        }
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(TeamMaker.teamName(null, i));
+        }
+        teamNames = List.copyOf(names);
+        rulesChanged();
+        out.println(count + " teams");
+    }
+
+    private void draw() {
+        checkUnlocked();
+        if (context == null) {
+            context = compile();
+        }
+        if (!context.drawUntilBalanced(MAX_ATTEMPTS)) {
+            out.println("No balanced draw found in " + MAX_ATTEMPTS + " attempts; showing the last one");
+        }
+        result = context.toResult();
+        if (together.isEmpty() && apart.isEmpty() && quotas.isEmpty()) {
+            repair = new TeamRepair(result, pins.keySet());
+            repairedRoster = List.copyOf(players);
+        } else {
+            repair = null;
+        }
+        formatter.printResults(result, out);
+    }
+
+    private void lock() {
+        requireResult();
+        locked = true;
+        out.println("Teams locked");
+    }
+
+    private void unlock() {
+        locked = false;
+        out.println("Teams unlocked");
+    }
+
+    private void export(String fileName) throws IOException {
+        requireResult();
+        Path file = Path.of(fileName.trim());
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        String format = name.endsWith(".csv") ? "csv" : name.endsWith(".ndjson") ? "ndjson" : "json";
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            ResultWriter.forFormat(format).write(result, stream);
+        }
+        out.println("Exported teams to " + file);
+    }
+
+    private void save(String fileName) throws IOException {
+        Path file = Path.of(fileName.trim());
+        JsonConfigLoader.saveToFile(currentConfig(), file);
+        out.println("Saved roster to " + file);
+    }
+
+    /**
+     * Compile the current roster. Scores were checked as players were added,
+     * so only the team split and the constraints are left to check.
+     */
+    private DrawContext compile() {
+        if (players.isEmpty() || players.size() % teamNames.size() != 0) {
+            throw new IllegalStateException(players.size() + " players cannot be split evenly into "
+                    + teamNames.size() + " teams");
+        }
+        CanonicalRoster roster = CanonicalRoster.of(List.copyOf(players), teamNames.size(), scale);
+        return new DrawContext(roster, teamNames, DrawConstraints.of(roster.players(), teamNames, currentConfig()),
+                random);
+    }
+
+    private TeamMakerConfig currentConfig() {
+        TeamMakerConfig config = new TeamMakerConfig(players, teamNames, scoreScale);
+        config.setPins(pins);
+        config.setTogether(together);
+        config.setApart(apart);
+        config.setTags(tags);
+        config.setQuotas(quotas);
+        return config;
+    }
+
+    /**
+     * Drop a removed player from the groups, and groups left with one player.
+     */
+    private static void forget(List<List<String>> groups, String name) {
+        for (int i = groups.size() - 1; i >= 0; i--) {
+            List<String> group = groups.get(i);
+            if (group.contains(name)) {
+                List<String> rest = new ArrayList<>(group);
+                rest.remove(name);
+                if (rest.size() < 2) {
+                    groups.remove(i);
+                } else {
+                    groups.set(i, List.copyOf(rest));
+                }
+            }
+        }
+    }
+
+    /**
+     * Repair the last draw after players were added, removed or rescored.
+     */
+    private void rosterChanged() {
+        context = null;
+        if (repair == null) {
+            result = null;
+            return;
+        }
+        if (players.isEmpty() || players.size() % teamNames.size() != 0) {
+            // Wait until the roster can be split again
+            result = null;
+            return;
+        }
+        boolean balanced;
+        try {
+            balanced = repair.apply(RosterDelta.between(repairedRoster, players));
+        } catch (IllegalArgumentException e) {
+            rulesChanged();
+            throw new IllegalArgumentException("Cannot repair the teams: " + e.getMessage() + "; use 'draw'");
+        }
+        repairedRoster = List.copyOf(players);
+        result = repair.toResult();
+        out.println("Repaired the teams with " + repair.getLastMoves() + " move(s)"
+                + (balanced ? "" : "; they are not balanced, use 'draw' to redraw everyone"));
+        formatter.printResults(result, out);
+    }
+
+    /**
+     * Discard the last draw after the pins or the teams changed.
+     */
+    private void rulesChanged() {
+        context = null;
+        result = null;
+        repair = null;
+    }
+
+    private double parseScore(String name, String text) {
+        double score;
+        try {
+            score = Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Score '" + text.trim() + "' is not a number");
+        }
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Player name cannot be empty");
+        }
+        if (scoreScale != null && !scoreScale.isValidScore(score)) {
+            throw new IllegalArgumentException(String.format(
+                    "Player %s has score %.1f which is outside the valid range [%.1f, %.1f]",
+                    name, score, scoreScale.getMin(), scoreScale.getMax()));
+        }
+        return score;
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int require(String name) {
+        int index = indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("No player named " + name);
+        }
+        return index;
+    }
+
+    private void requireResult() {
+        if (result == null) {
+            throw new IllegalStateException("Nothing drawn yet; use 'draw' first");
+        }
+    }
+
+    private void checkUnlocked() {
+        if (locked) {
+            throw new IllegalStateException("Teams are locked; use 'unlock' first");
+        }
+    }
+}
@@ -4,7 +4,14 @@ import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+import picocli.CommandLine.Model.CommandSpec;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
 import java.util.concurrent.Callable;
 
 /**
@@ -16,14 +23,26 @@ import java.util.concurrent.Callable;
     name = "teammaker",
     mixinStandardHelpOptions = true,
     version = "TeamMaker 1.0",
-    description = "Generate balanced teams from a list of players"
+    description = "Generate balanced teams from a list of players",
+    subcommands = ShellCommand.class
 )
 public class TeamMakerApp implements Callable<Integer> {
 
+    private static final String PRETTY = "pretty";
+    private static final String CLEAR_SCREEN = "\u001B[H\u001B[2J";
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final Path workingDirectory;
+    private final boolean colors;
+
+    @Spec
+    private CommandSpec spec;
+
     @Parameters(
         index = "0", 
         arity = "0..1",
-        description = "JSON configuration file path (optional)"
+        description = "JSON or binary configuration file path (optional)"
     )
     private String configFile;
 
@@ -31,7 +50,7 @@ public class TeamMakerApp implements Callable<Integer> {
         names = {"-r", "--resource"}, 
         description = "Use resource file instead of external file (default: team-config.json)"
     )
-    private String resourceName = "team-config.json";
+    private String resourceName = BundledConfig.RESOURCE;
 
     @Option(
         names = {"-d", "--default"}, 
@@ -45,6 +64,80 @@ public class TeamMakerApp implements Callable<Integer> {
     )
     private boolean verbose = false;
 
+    @Option(
+        names = {"-f", "--format"}, 
+        description = "Output format: pretty, json, csv or ndjson (default: pretty)"
+    )
+    private String format = "pretty";
+
+    @Option(
+        names = {"--summary-only"}, 
+        description = "Print only the summary of the pretty output, without the teams"
+    )
+    private boolean summaryOnly = false;
+
+    @Option(
+        names = {"--max-teams"}, 
+        description = "Maximum number of teams listed in the pretty output (default: all)"
+    )
+    private int maxTeams = Integer.MAX_VALUE;
+
+    @Option(
+        names = {"--pipe"}, 
+        description = "Read newline-delimited JSON configurations from stdin and write one JSON result per line to stdout"
+    )
+    private boolean pipe = false;
+
+    @Option(
+        names = {"--parallelism"}, 
+        description = "Maximum number of rosters drawn at once in pipe mode (default: number of processors)"
+    )
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+        names = {"-w", "--watch"}, 
+        description = "Redraw whenever the configuration file changes, until interrupted"
+    )
+    private boolean watch = false;
+
+    @Option(
+        names = {"--daemon"}, 
+        description = "Stay resident and serve draws for --client invocations on a Unix domain socket"
+    )
+    private boolean daemon = false;
+
+    @Option(
+        names = {"--client"}, 
+        description = "Forward this invocation to a running daemon, or run locally if none is listening"
+    )
+    private boolean client = false;
+
+    @Option(
+        names = {"--socket"}, 
+        description = "Unix domain socket of the daemon, in a directory private to the user (default: teammaker.sock in $XDG_RUNTIME_DIR or ~/.teammaker)"
+    )
+    private Path socket;
+
+    public TeamMakerApp() {
+        this(System.out, System.err, null, TeamResultFormatter.COLORS);
+    }
+
+    /**
+     * Creates an application that prints to the given streams.
+     *
+     * @param out              standard output
+     * @param err              standard error
+     * @param workingDirectory directory relative configuration paths are resolved
+     *                         against, or null for a local run
+     * @param colors           whether pretty output uses ANSI colors
+     */
+    TeamMakerApp(PrintStream out, PrintStream err, Path workingDirectory, boolean colors) {
+        this.out = out;
+        this.err = err;
+        this.workingDirectory = workingDirectory;
+        this.colors = colors;
+    }
+
     public static void main(String[] args) {
         int exitCode = new CommandLine(new TeamMakerApp()).execute(args);
         // Only call System.exit if we're not in a test environment
@@ -67,28 +160,68 @@ public class TeamMakerApp implements Callable<Integer> {
     @Override
     public Integer call() throws Exception {
         try {
-            TeamResultFormatter formatter = new TeamResultFormatter(verbose);
+            if (isRemote() && (daemon || client || pipe || watch)) {
+                throw new IllegalArgumentException("--daemon, --client, --pipe and --watch cannot be used through the daemon");
+            }
+            if (daemon) {
+                try (DaemonServer server = new DaemonServer(socketPath())) {
+                    out.println("TeamMaker daemon listening on " + server.getSocket());
+                    server.run();
+                }
+                return 0;
+            }
+            if (client) {
+                OptionalInt exitCode = DaemonClient.forward(socketPath(), forwardedArgs(), colors, out, err);
+                if (exitCode.isPresent()) {
+                    return exitCode.getAsInt();
+                }
+                status("No daemon listening on " + socketPath() + ", running locally...");
+            }
+            if (pipe) {
+                return new PipeMode(parallelism, TeamMakerBatch.DEFAULT_MAX_ATTEMPTS).run(System.in, out);
+            }
+
+            if (!PRETTY.equalsIgnoreCase(format)) {
+                // Fail on an unknown format before drawing anything
+                ResultWriter.forFormat(format);
+            }
+            TeamResultFormatter formatter = new TeamResultFormatter(verbose, summaryOnly, maxTeams, colors);
             
+            if (watch) {
+                if (configFile == null) {
+                    throw new IllegalArgumentException("--watch needs a configuration file");
+                }
+                WatchMode watchMode = new WatchMode(resolve(configFile), WatchMode.DEFAULT_DEBOUNCE_MILLIS,
+                        TeamMakerBatch.DEFAULT_MAX_ATTEMPTS, err);
+                watchMode.run(result -> {
+                    if (colors && PRETTY.equalsIgnoreCase(format)) {
+                        // Redraw in place on a shared screen
+                        out.print(CLEAR_SCREEN);
+                    }
+                    printResults(formatter, result);
+                });
+                return 0;
+            }
             if (useDefault) {
-                if (verbose) System.out.println("Using default hard-coded players...");
+                status("Using default hard-coded players...");
                 run(formatter);
             } else if (configFile != null) {
-                if (verbose) System.out.println("Loading configuration from: " + configFile);
+                status("Loading configuration from: " + configFile);
                 runWithConfig(configFile, formatter);
             } else {
-                if (verbose) System.out.println("Loading configuration from resource: " + resourceName);
+                status("Loading configuration from resource: " + resourceName);
                 try {
                     runWithResourceConfig(resourceName, formatter);
                 } catch (IOException e) {
-                    if (verbose) System.out.println("Resource not found, falling back to default players...");
+                    status("Resource not found, falling back to default players...");
                     run(formatter);
                 }
             }
             return 0;
         } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
+            err.println("Error: " + e.getMessage());
             if (verbose) {
-                e.printStackTrace();
+                e.printStackTrace(err);
             }
             return 1;
         }
@@ -97,17 +230,8 @@ public class TeamMakerApp implements Callable<Integer> {
     /**
      * Run the application with default hard-coded players.
      */
-    private void run(TeamResultFormatter formatter) {
-        TeamMaker teamMaker = new TeamMaker();
-
-        // Keep trying until we get balanced teams
-        TeamMakerResult result;
-        do {
-            result = teamMaker.createBalancedTeams();
-        } while (!result.isBalanced());
-
-        // Print the results using the formatter
-        formatter.printResults(result);
+    private void run(TeamResultFormatter formatter) throws IOException {
+        draw(new DrawContext(new TeamMaker().getDefaultPlayers(), 2), formatter);
     }
 
     /**
@@ -118,13 +242,7 @@ public class TeamMakerApp implements Callable<Integer> {
      * @throws IOException if the configuration cannot be loaded
      */
     private void runWithConfig(String configPath, TeamResultFormatter formatter) throws IOException {
-        TeamMakerResult result;
-        do {
-            result = TeamMaker.createBalancedTeamsFromConfig(configPath);
-        } while (!result.isBalanced());
-
-        // Print the results using the formatter
-        formatter.printResults(result);
+        draw(new DrawContext(JsonConfigLoader.loadFromFile(resolve(configPath))), formatter);
     }
 
     /**
@@ -135,12 +253,106 @@ public class TeamMakerApp implements Callable<Integer> {
      * @throws IOException if the configuration cannot be loaded
      */
     private void runWithResourceConfig(String resourceName, TeamResultFormatter formatter) throws IOException {
-        TeamMakerResult result;
-        do {
-            result = TeamMaker.createBalancedTeamsFromResource(resourceName);
-        } while (!result.isBalanced());
+        // The bundled configuration is parsed ahead of time; other resources are loaded once here
+        TeamMakerConfig config = BundledConfig.forResource(resourceName);
+        if (config == null) {
+            config = JsonConfigLoader.loadFromResource(resourceName);
+        }
+        draw(new DrawContext(config), formatter);
+    }
+
+    /**
+     * Draw from a loaded roster until the teams are balanced, giving up after
+     * {@link TeamMakerBatch#DEFAULT_MAX_ATTEMPTS} draws. Constraints such as
+     * pins can make a balanced draw impossible, so the last draw is printed
+     * with a warning instead of retrying forever.
+     *
+     * @param context the compiled roster
+     * @param formatter the result formatter
+     * @throws IOException if the results cannot be written
+     */
+    private void draw(DrawContext context, TeamResultFormatter formatter) throws IOException {
+        if (!context.drawUntilBalanced(TeamMakerBatch.DEFAULT_MAX_ATTEMPTS)) {
+            err.println("Warning: no balanced draw found in " + TeamMakerBatch.DEFAULT_MAX_ATTEMPTS
+                    + " attempts; showing the last one");
+        }
+        printResults(formatter, context.toResult());
+    }
+
+    /**
+     * Print a status line in verbose mode. Status lines go to standard error
+     * unless the output is pretty, so they never mix with machine-readable
+     * results.
+     *
+     * @param message the status line
+     */
+    private void status(String message) {
+        if (verbose) {
+            (PRETTY.equalsIgnoreCase(format) ? out : err).println(message);
+        }
+    }
+
+    /**
+     * Print a result in the selected output format.
+     * 
+     * @param formatter the formatter used for the pretty format
+     * @param result the result to print
+     * @throws IOException if writing the result fails
+     */
+    private void printResults(TeamResultFormatter formatter, TeamMakerResult result) throws IOException {
+        if (PRETTY.equalsIgnoreCase(format)) {
+            formatter.printResults(result, out);
+        } else {
+            ResultWriter.forFormat(format).write(result, out);
+        }
+    }
+
+    PrintStream out() {
+        return out;
+    }
+
+    PrintStream err() {
+        return err;
+    }
+
+    boolean colors() {
+        return colors;
+    }
+
+    /**
+     * @return whether this invocation was forwarded to a daemon
+     */
+    boolean isRemote() {
+        return workingDirectory != null;
+    }
+
+    /**
+     * @param path a path given on the command line
+     * @return the path, resolved against the caller's working directory
+     */
+    Path resolve(String path) {
+        return workingDirectory != null ? workingDirectory.resolve(path) : Path.of(path);
+    }
 
-        // Print the results using the formatter
-        formatter.printResults(result);
+    private Path socketPath() {
+        return socket != null ? socket : DaemonServer.defaultSocket();
+    }
+
+    /**
+     * @return the command-line arguments of this invocation without the
+     *         client options, as the daemon should see them
+     */
+    private List<String> forwardedArgs() {
+        List<String> args = spec.commandLine().getParseResult().originalArgs();
+        List<String> forwarded = new ArrayList<>(args.size());
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (arg.equals("--socket")) {
+                i++;
+            } else if (!arg.equals("--client") && !arg.startsWith("--socket=")) {
+                forwarded.add(arg);
+            }
+        }
+        return forwarded;
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,25 @@
 package io.github.brunoborges.teammaker;
 
+import java.io.PrintStream;
 import java.util.List;
 
 /**
  * Formats and prints team results in an attractive and readable way.
+ * <p>
+ * Output is rendered into a reusable buffer and handed to the stream in a
+ * single write. Whether the terminal supports colors is detected once, and
+ * the ANSI codes are resolved up front, so rendering a line is a plain
+ * append. For results with thousands of teams, the number of teams shown can
+ * be limited or the teams left out entirely in favor of the summary.
  */
 public class TeamResultFormatter {
 
-    private final boolean verbose;
+    /**
+     * Rendered output is written out whenever the buffer grows past this many
+     * characters, so very large results do not need one huge buffer.
+     */
+    static final int FLUSH_THRESHOLD = 64 * 1024;
+
     private static final String ANSI_RESET = "\u001B[0m";
     private static final String ANSI_BOLD = "\u001B[1m";
     private static final String ANSI_BLUE = "\u001B[34m";
@@ -16,150 +28,239 @@ public class TeamResultFormatter {
     private static final String ANSI_CYAN = "\u001B[36m";
     private static final String ANSI_PURPLE = "\u001B[35m";
 
+    /**
+     * Terminal capability does not change while the process runs, so it is
+     * detected once.
+     */
+    static final boolean COLORS = supportsColors();
+
+    private static final String NEWLINE = System.lineSeparator();
+    private static final String HEADER = """
+                ╔══════════════════════════════════════════════════════════════════╗
+                ║                     ⚽ TEAM DRAW RESULTS ⚽                      ║
+                ╚══════════════════════════════════════════════════════════════════╝
+                """;
+    private static final String FOOTER = """
+                ╔══════════════════════════════════════════════════════════════════╗
+                ║                🏆 GOOD LUCK WITH YOUR MATCHES! 🏆                ║
+                ╚══════════════════════════════════════════════════════════════════╝
+                """;
+    private static final String TEAM_CLOSER = "└" + "─".repeat(63);
+    private static final String SUMMARY_RULE = "─".repeat(60);
+
+    private final boolean verbose;
+    private final boolean summaryOnly;
+    private final int maxTeams;
+    private final StringBuilder buffer = new StringBuilder(4096);
+
+    private final String reset;
+    private final String bold;
+    private final String blue;
+    private final String green;
+    private final String yellow;
+    private final String cyan;
+    private final String purple;
+
     public TeamResultFormatter(boolean verbose) {
+        this(verbose, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param verbose     whether to print additional details
+     * @param summaryOnly whether to print only the summary, without the teams
+     * @param maxTeams    maximum number of teams to print; the remaining teams
+     *                    are only counted
+     */
+    public TeamResultFormatter(boolean verbose, boolean summaryOnly, int maxTeams) {
+        this(verbose, summaryOnly, maxTeams, COLORS);
+    }
+
+    TeamResultFormatter(boolean verbose, boolean summaryOnly, int maxTeams, boolean colors) {
+        if (maxTeams < 0) {
+            throw new IllegalArgumentException("Max teams cannot be negative, but was " + maxTeams);
+        }
         this.verbose = verbose;
+        this.summaryOnly = summaryOnly;
+        this.maxTeams = maxTeams;
+        this.reset = colors ? ANSI_RESET : "";
+        this.bold = colors ? ANSI_BOLD : "";
+        this.blue = colors ? ANSI_BLUE : "";
+        this.green = colors ? ANSI_GREEN : "";
+        this.yellow = colors ? ANSI_YELLOW : "";
+        this.cyan = colors ? ANSI_CYAN : "";
+        this.purple = colors ? ANSI_PURPLE : "";
+    }
+
+    /**
+     * Check whether we're in a terminal that supports colors.
+     */
+    private static boolean supportsColors() {
+        return System.console() != null || System.getenv("TERM") != null;
     }
 
     /**
      * Print the complete team results with attractive formatting.
-     * 
+     *
      * @param result the team maker result to display
      */
     public void printResults(TeamMakerResult result) {
-        printHeader();
-        printTeams(result.getTeams());
-        printSummary(result);
-        printFooter();
+        printResults(result, System.out);
     }
 
     /**
-     * Print an attractive header for the team results.
+     * Print the complete team results with attractive formatting.
+     *
+     * @param result the team maker result to display
+     * @param out    the stream to print to
      */
-    private void printHeader() {
-        System.out.println();
-        System.out.println(colorize("""
-                ╔══════════════════════════════════════════════════════════════════╗
-                ║                     ⚽ TEAM DRAW RESULTS ⚽                      ║
-                ╚══════════════════════════════════════════════════════════════════╝
-                """, ANSI_CYAN));
-        System.out.println();
+    public void printResults(TeamMakerResult result, PrintStream out) {
+        buffer.setLength(0);
+        appendHeader();
+        if (!summaryOnly) {
+            appendTeams(result.getTeams(), out);
+        }
+        appendSummary(result);
+        appendFooter();
+        write(out);
+        out.flush();
+    }
+
+    /**
+     * Render an attractive header for the team results.
+     */
+    private void appendHeader() {
+        line();
+        colored(HEADER, cyan);
+        line();
+        line();
     }
 
     /**
-     * Print all teams with enhanced formatting.
-     * 
+     * Render the teams with enhanced formatting.
+     *
      * @param teams the list of teams to display
+     * @param out   the stream the buffer is written to when it grows large
      */
-    private void printTeams(List<Team> teams) {
-        for (int i = 0; i < teams.size(); i++) {
-            Team team = teams.get(i);
-            printTeam(team, i + 1);
+    private void appendTeams(List<Team> teams, PrintStream out) {
+        int shown = Math.min(teams.size(), maxTeams);
+        for (int i = 0; i < shown; i++) {
+            appendTeam(teams.get(i), i + 1);
 
             // Add spacing between teams, but not after the last one
             if (i < teams.size() - 1) {
-                System.out.println();
+                line();
+            }
+            if (buffer.length() > FLUSH_THRESHOLD) {
+                write(out);
             }
         }
+        if (shown < teams.size()) {
+            buffer.append(yellow).append("… ").append(teams.size() - shown)
+                    .append(" more teams not shown").append(reset);
+            line();
+        }
     }
 
     /**
-     * Print a single team with attractive formatting.
-     * 
+     * Render a single team with attractive formatting.
+     *
      * @param team       the team to display
      * @param teamNumber the team number for display purposes
      */
-    private void printTeam(Team team, int teamNumber) {
-        String teamHeader = String.format("Team #%d - %s", teamNumber, team.getName());
-        String strengthInfo = String.format("Strength: %.1f", team.getScore());
-
-        System.out.println(colorize("┌─── " + teamHeader, ANSI_BLUE));
-        System.out.println(colorize("│ " + strengthInfo, ANSI_GREEN));
-        System.out.println(colorize("├─ Players:", ANSI_YELLOW));
+    private void appendTeam(Team team, int teamNumber) {
+        buffer.append(blue).append("┌─── Team #").append(teamNumber).append(" - ").append(team.getName()).append(reset);
+        line();
+        buffer.append(green).append("│ Strength: ");
+        decimal(team.getScore()).append(reset);
+        line();
+        buffer.append(yellow).append("├─ Players:").append(reset);
+        line();
 
-        // Print each player with attractive formatting
-        team.getPlayers().forEach(player -> {
-            String playerInfo = String.format("│   • %s (%.1f)", player.name(), player.score());
-            System.out.println(colorize(playerInfo, ANSI_PURPLE));
-        });
+        for (Player player : team.getPlayers()) {
+            buffer.append(purple).append("│   • ").append(player.name()).append(" (");
+            decimal(player.score()).append(')').append(reset);
+            line();
+        }
 
-        System.out.println(colorize("└" + "─".repeat(63), ANSI_BLUE));
+        colored(TEAM_CLOSER, blue);
+        line();
     }
 
     /**
-     * Print a summary of the team balance and statistics.
-     * 
+     * Render a summary of the team balance and statistics.
+     *
      * @param result the team maker result
      */
-    private void printSummary(TeamMakerResult result) {
-        System.out.println();
-        System.out.println(colorize("📊 SUMMARY", ANSI_BOLD + ANSI_CYAN));
-        System.out.println(colorize("─".repeat(60), ANSI_CYAN));
-
-        List<Team> teams = result.getTeams();
+    private void appendSummary(TeamMakerResult result) {
+        line();
+        colored("📊 SUMMARY", bold + cyan);
+        line();
+        colored(SUMMARY_RULE, cyan);
+        line();
 
-        // Calculate statistics
-        double totalStrength = teams.stream().mapToDouble(Team::getScore).sum();
-        double avgStrength = totalStrength / teams.size();
-        double minStrength = teams.stream().mapToDouble(Team::getScore).min().orElse(0);
-        double maxStrength = teams.stream().mapToDouble(Team::getScore).max().orElse(0);
-        double strengthDifference = maxStrength - minStrength;
+        // Statistics are computed once when the result is assembled
+        TeamStatistics statistics = result.getStatistics();
+        double strengthDifference = statistics.getSpread();
 
-        System.out.printf("Total Teams: %s%d%s%n", ANSI_BOLD, teams.size(), ANSI_RESET);
-        System.out.printf("Average Team Strength: %s%.1f%s%n", ANSI_BOLD, avgStrength, ANSI_RESET);
-        System.out.printf("Strength Range: %s%.1f - %.1f%s%n", ANSI_BOLD, minStrength, maxStrength, ANSI_RESET);
-        System.out.printf("Max Difference: %s%.1f%s", ANSI_BOLD, strengthDifference, ANSI_RESET);
+        buffer.append("Total Teams: ").append(bold).append(statistics.getTeamCount()).append(reset);
+        line();
+        buffer.append("Average Team Strength: ").append(bold);
+        decimal(statistics.getMean()).append(reset);
+        line();
+        buffer.append("Strength Range: ").append(bold);
+        decimal(statistics.getMinimum()).append(" - ");
+        decimal(statistics.getMaximum()).append(reset);
+        line();
+        buffer.append("Max Difference: ").append(bold);
+        decimal(strengthDifference).append(reset);
 
         // Balance indicator
         if (result.isBalanced()) {
-            System.out.println(colorize(" ✅ WELL BALANCED!", ANSI_GREEN));
+            colored(" ✅ WELL BALANCED!", green);
         } else {
-            System.out.println(colorize(" ⚠️  Needs rebalancing", ANSI_YELLOW));
+            colored(" ⚠️  Needs rebalancing", yellow);
         }
+        line();
 
         if (verbose && strengthDifference < 1.0) {
-            System.out.println(colorize("🎯 Excellent balance achieved - difference under 1.0!", ANSI_GREEN));
+            colored("🎯 Excellent balance achieved - difference under 1.0!", green);
+            line();
         }
     }
 
     /**
-     * Print an attractive footer to conclude the results.
+     * Render an attractive footer to conclude the results.
      */
-    private void printFooter() {
-        System.out.println();
-        System.out.println(colorize("""
-                ╔══════════════════════════════════════════════════════════════════╗
-                ║                🏆 GOOD LUCK WITH YOUR MATCHES! 🏆                ║
-                ╚══════════════════════════════════════════════════════════════════╝
-                """, ANSI_CYAN));
-        System.out.println();
+    private void appendFooter() {
+        line();
+        colored(FOOTER, cyan);
+        line();
+        line();
+    }
+
+    private void colored(String text, String color) {
+        buffer.append(color).append(text).append(reset);
+    }
+
+    private void line() {
+        buffer.append(NEWLINE);
     }
 
     /**
-     * Apply color formatting to text if colors are supported.
-     * 
-     * @param text      the text to colorize
-     * @param colorCode the ANSI color code
-     * @return the colorized text or plain text if colors aren't supported
+     * Append a number with one decimal place, rounding half up like
+     * {@code %.1f} but without a formatter or locale lookup.
      */
-    private String colorize(String text, String colorCode) {
-        // Check if we're in a terminal that supports colors
-        if (System.console() != null || System.getenv("TERM") != null) {
-            return colorCode + text + ANSI_RESET;
+    private StringBuilder decimal(double value) {
+        if (value < 0) {
+            buffer.append('-');
+            value = -value;
         }
-        return text;
+        long tenths = Math.round(value * 10);
+        return buffer.append(tenths / 10).append('.').append(tenths % 10);
     }
 
-    /**
-     * Center text within a specified width.
-     * 
-     * @param text  the text to center
-     * @param width the total width
-     * @return the centered text
-     */
-    private String center(String text, int width) {
-        int padding = Math.max(0, width - text.length());
-        int leftPadding = padding / 2;
-        int rightPadding = padding - leftPadding;
-        return " ".repeat(leftPadding) + text + " ".repeat(rightPadding);
+    private void write(PrintStream out) {
+        out.append(buffer);
+        buffer.setLength(0);
     }
-}
\ No newline at end of file
+}
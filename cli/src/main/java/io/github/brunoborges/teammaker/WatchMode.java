@@ -0,0 +1,210 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redraws whenever a configuration file is saved, for {@code teammaker --watch}.
+ * <p>
+ * The file's directory is observed with a {@link WatchService}. Bursts of
+ * events, as editors produce when saving, are debounced into one reload. The
+ * file is read once per reload and parsed only when its content hash changed,
+ * from the same bytes; binary configurations are parsed onto the heap rather
+ * than mapped, so an in-place rewrite cannot change the previous roster. The
+ * new roster is diffed against the previous one with {@link RosterDelta}: saves that do not
+ * change the players or teams do not redraw. When only the players changed,
+ * the current teams are repaired with {@link TeamRepair} so most players keep
+ * their team; a full redraw happens only if the repair cannot restore balance
+ * or the configuration has players who must play together or apart, or tag
+ * quotas.
+ * An invalid save is reported and the previous teams stay current until the
+ * file is fixed.
+ */
+class WatchMode {
+
+    static final long DEFAULT_DEBOUNCE_MILLIS = 50;
+
+    /**
+     * Receives every new result.
+     */
+    @FunctionalInterface
+    interface Printer {
+        void print(TeamMakerResult result) throws IOException;
+    }
+
+    private final Path file;
+    private final long debounceMillis;
+    private final int maxAttempts;
+    private final PrintStream err;
+
+    private byte[] hash;
+    private TeamMakerConfig config;
+    private TeamRepair repair;
+    private TeamMakerResult current;
+
+    /**
+     * @param file           the configuration file to watch
+     * @param debounceMillis quiet time after the last event before reloading
+     * @param maxAttempts    maximum number of draws until a balanced one is found
+     * @param err            destination of status and error messages
+     */
+    WatchMode(Path file, long debounceMillis, int maxAttempts, PrintStream err) {
+        this.file = file.toAbsolutePath();
+        this.debounceMillis = debounceMillis;
+        this.maxAttempts = maxAttempts;
+        this.err = err;
+    }
+
+    /**
+     * Draw once, then redraw on every change until the thread is interrupted.
+     *
+     * @param printer receives every new result
+     * @throws IOException if the directory cannot be watched or printing fails
+     */
+    void run(Printer printer) throws IOException {
+        try (WatchService watcher = file.getFileSystem().newWatchService()) {
+            file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            refresh(printer);
+            err.println("Watching " + file + " for changes...");
+            while (!Thread.currentThread().isInterrupted()) {
+                if (awaitChange(watcher)) {
+                    refresh(printer);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait for an event on the file, then for the events to settle.
+     *
+     * @return true if the file changed
+     */
+    private boolean awaitChange(WatchService watcher) throws InterruptedException {
+        boolean changed = drain(watcher.take());
+        WatchKey key;
+        while ((key = watcher.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+            changed |= drain(key);
+        }
+        return changed;
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Reload the file if its content changed and redraw if the roster changed.
+     *
+     * @param printer receives the new result
+     * @return true if a new result was printed
+     * @throws IOException if printing fails
+     */
+    boolean refresh(Printer printer) throws IOException {
+        TeamMakerConfig loaded;
+        try {
+            byte[] content = Files.readAllBytes(file);
+            byte[] contentHash = sha256(content);
+            if (Arrays.equals(contentHash, hash)) {
+                return false;
+            }
+            hash = contentHash;
+            // Parse the bytes just hashed: a mapping of the file would change
+            // under the previous roster when the file is rewritten in place
+            loaded = BinaryConfigLoader.isBinary(content)
+                    ? BinaryConfigLoader.loadFromBytes(content)
+                    : JsonConfigLoader.loadFromInputStream(new ByteArrayInputStream(content));
+        } catch (IOException | IllegalArgumentException e) {
+            err.println("Error: " + e.getMessage() + (config != null ? " (keeping the previous teams)" : ""));
+            return false;
+        }
+
+        if (config != null) {
+            RosterDelta delta = RosterDelta.between(config.getPlayers(), loaded.getPlayers());
+            boolean sameTeams = loaded.getTeamNames().equals(config.getTeamNames())
+                    && loaded.getPins().equals(config.getPins())
+                    && loaded.getTogether().equals(config.getTogether())
+                    && loaded.getApart().equals(config.getApart())
+                    && loaded.getTags().equals(config.getTags())
+                    && loaded.getQuotas().equals(config.getQuotas());
+            if (delta.isEmpty() && sameTeams) {
+                return false;
+            }
+            err.println("Roster changed: " + delta);
+            boolean grouped = !loaded.getTogether().isEmpty() || !loaded.getApart().isEmpty()
+                    || !loaded.getQuotas().isEmpty();
+            if (sameTeams && !grouped && repair(loaded, delta)) {
+                config = loaded;
+                current = repair.toResult();
+                printer.print(current);
+                return true;
+            }
+        }
+        TeamMakerResult result;
+        try {
+            DrawContext context = new DrawContext(loaded);
+            context.drawUntilBalanced(maxAttempts);
+            result = context.toResult();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Constraints can pass validation and still leave no way to place the players
+            err.println("Error: " + e.getMessage() + (config != null ? " (keeping the previous teams)" : ""));
+            if (current != null) {
+                // A failed repair may have moved players; start again from the shown teams
+                repair = new TeamRepair(current, config.getPins().keySet());
+            }
+            return false;
+        }
+        config = loaded;
+        current = result;
+        repair = new TeamRepair(result, loaded.getPins().keySet());
+        printer.print(result);
+        return true;
+    }
+
+    /**
+     * Try to repair the current teams instead of redrawing them.
+     *
+     * @return true if the repaired teams are valid and balanced
+     */
+    private boolean repair(TeamMakerConfig loaded, RosterDelta delta) {
+        try {
+            loaded.validate();
+            if (repair.apply(delta)) {
+                err.println("Repaired the teams with " + repair.getLastMoves() + " move(s)");
+                return true;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall back to a full redraw, which reports the problem
+        }
+        return false;
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
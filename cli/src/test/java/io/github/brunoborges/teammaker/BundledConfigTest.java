@@ -0,0 +1,24 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BundledConfig Tests")
+class BundledConfigTest {
+
+    @Test
+    @DisplayName("Should pre-parse only the bundled resource into on-heap players")
+    void shouldPreParseOnlyTheBundledResourceIntoOnHeapPlayers() {
+        // When
+        TeamMakerConfig config = BundledConfig.forResource(BundledConfig.RESOURCE);
+
+        // Then
+        assertNotNull(config);
+        assertFalse(config.getPlayers() instanceof OffHeapRoster, "Players must be storable in the image heap");
+        assertEquals(20, config.getPlayers().size());
+        assertDoesNotThrow(config::validate);
+        assertSame(config, BundledConfig.forResource(BundledConfig.RESOURCE), "Should parse only once");
+        assertNull(BundledConfig.forResource("other-config.json"));
+    }
+}
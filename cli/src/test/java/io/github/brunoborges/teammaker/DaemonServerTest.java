@@ -0,0 +1,90 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.OptionalInt;
+
+@DisplayName("DaemonServer Tests")
+class DaemonServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should run forwarded invocations and stream their output back")
+    void shouldRunForwardedInvocationsAndStreamTheirOutputBack() throws Exception {
+        // Given
+        Path socket = tempDir.resolve("teammaker.sock");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        try (DaemonServer server = new DaemonServer(socket)) {
+            Thread.ofVirtual().start(server::run);
+
+            // When
+            OptionalInt drawn = DaemonClient.forward(socket, List.of("--default", "--format", "json"), false,
+                    new PrintStream(out), new PrintStream(err));
+            OptionalInt rejected = DaemonClient.forward(socket, List.of("--pipe"), false,
+                    new PrintStream(out), new PrintStream(err));
+
+            // Then
+            assertEquals(OptionalInt.of(0), drawn);
+            assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("{\"balanced\":true"));
+            assertEquals(OptionalInt.of(1), rejected);
+            assertTrue(err.toString(StandardCharsets.UTF_8).contains("cannot be used through the daemon"));
+            assertThrows(IOException.class, () -> new DaemonServer(socket), "Should not start a second daemon");
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse a socket directory other users can enter")
+    void shouldRefuseASocketDirectoryOtherUsersCanEnter() throws IOException {
+        // Given
+        Path shared = Files.createDirectory(tempDir.resolve("shared"));
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        // When
+        IOException e = assertThrows(IOException.class, () -> new DaemonServer(shared.resolve("teammaker.sock")));
+
+        // Then
+        assertTrue(e.getMessage().contains("must be private to its owner"));
+        assertFalse(Files.exists(shared.resolve("teammaker.sock")));
+    }
+
+    @Test
+    @DisplayName("Should create a missing socket directory private to the user")
+    void shouldCreateAMissingSocketDirectoryPrivateToTheUser() throws IOException {
+        // Given
+        Path directory = tempDir.resolve("runtime");
+
+        // When
+        try (DaemonServer server = new DaemonServer(directory.resolve("teammaker.sock"))) {
+
+            // Then
+            assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)));
+            assertEquals(directory.toAbsolutePath(), server.getSocket().getParent());
+        }
+    }
+
+    @Test
+    @DisplayName("Should report when no daemon is listening")
+    void shouldReportWhenNoDaemonIsListening() throws IOException {
+        // When
+        OptionalInt exitCode = DaemonClient.forward(tempDir.resolve("missing.sock"), List.of(), false,
+                new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream()));
+
+        // Then
+        assertTrue(exitCode.isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@DisplayName("PipeMode Tests")
+class PipeModeTest {
+
+    private static String roster(int players, String prefix) {
+        StringBuilder json = new StringBuilder("{\"teamNames\": [\"Red\", \"Blue\"], \"players\": [");
+        for (int i = 0; i < players; i++) {
+            json.append(i == 0 ? "" : ", ")
+                    .append("{\"name\": \"").append(prefix).append(i).append("\", \"score\": ").append(i % 5 + 1).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    @Test
+    @DisplayName("Should write one result per roster in input order")
+    void shouldWriteOneResultPerRosterInInputOrder() throws Exception {
+        // Given
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            input.append(roster(2 + 2 * (i % 10), "P" + i + "-")).append('\n');
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        int exitCode = new PipeMode(3, 100).run(
+                new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), output);
+
+        // Then
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(0, exitCode);
+        assertEquals(50, lines.size());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(lines.get(i).startsWith("{\"line\":" + (i + 1) + ",\"balanced\":"), lines.get(i));
+            assertTrue(lines.get(i).contains("\"name\":\"P" + i + "-0\""), lines.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should report broken lines without stopping the stream")
+    void shouldReportBrokenLinesWithoutStoppingTheStream() throws Exception {
+        // Given
+        String input = roster(4, "A") + "\n\nnot json\n" + roster(3, "C") + "\n" + roster(2, "D") + "\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        int exitCode = new PipeMode(2, 100).run(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        // Then
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, exitCode);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"line\":1,\"balanced\":"));
+        assertTrue(lines.get(1).startsWith("{\"line\":3,\"error\":"));
+        assertTrue(lines.get(2).contains("must be evenly divisible"));
+        assertTrue(lines.get(3).startsWith("{\"line\":5,\"balanced\":"));
+    }
+}
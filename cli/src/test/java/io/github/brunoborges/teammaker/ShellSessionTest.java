@@ -0,0 +1,120 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@DisplayName("ShellSession Tests")
+class ShellSessionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private ShellSession session() {
+        List<Player> players = List.of(new Player("Ann", 4), new Player("Bob", 3),
+                new Player("Cid", 2), new Player("Dee", 3));
+        TeamMakerConfig config = new TeamMakerConfig(players, List.of("Red", "Blue"),
+                new TeamMakerConfig.ScoreScale(1, 5));
+        return new ShellSession(config, new PrintStream(output, true, StandardCharsets.UTF_8), false);
+    }
+
+    private String output() {
+        String text = output.toString(StandardCharsets.UTF_8);
+        output.reset();
+        return text;
+    }
+
+    @Test
+    @DisplayName("Should edit the roster and redraw without reloading")
+    void shouldEditTheRosterAndRedrawWithoutReloading() throws IOException {
+        // Given
+        ShellSession session = session();
+
+        // When
+        session.execute("add Eve Long 3.5");
+        session.execute("add Fay 9");
+        String rejected = output();
+        session.execute("add Fay 2.5");
+        session.execute("remove Cid");
+        session.execute("draw");
+        String uneven = output();
+        session.execute("add Gil 2");
+        session.execute("rescore Bob 4");
+        session.execute("draw");
+        String drawn = output();
+        session.execute("export " + tempDir.resolve("teams.csv"));
+
+        // Then
+        assertTrue(rejected.contains("Added Eve Long (5 players)"));
+        assertTrue(rejected.contains("Error: Player Fay has score 9.0 which is outside the valid range [1.0, 5.0]"));
+        assertTrue(uneven.contains("Error: 5 players cannot be split evenly into 2 teams"));
+        assertTrue(drawn.contains("┌─── Team #1"));
+        assertTrue(drawn.contains("Eve Long (3.5)"));
+        assertFalse(drawn.contains("Cid"));
+        assertTrue(drawn.contains("Bob (4.0)"));
+        List<String> csv = Files.readAllLines(tempDir.resolve("teams.csv"));
+        assertEquals(7, csv.size(), "Header plus six players");
+    }
+
+    @Test
+    @DisplayName("Should repair the drawn teams when players come and go")
+    void shouldRepairTheDrawnTeamsWhenPlayersComeAndGo() throws IOException {
+        // Given
+        ShellSession session = session();
+        session.execute("draw");
+        output();
+
+        // When
+        session.execute("remove Cid");
+        String uneven = output();
+        session.execute("add Eve 2");
+        String repaired = output();
+        session.execute("export " + tempDir.resolve("teams.csv"));
+
+        // Then
+        assertFalse(uneven.contains("Repaired"), "Should wait until the roster can be split");
+        assertTrue(repaired.contains("Repaired the teams with"));
+        assertTrue(repaired.contains("Eve (2.0)"));
+        assertFalse(repaired.contains("Cid"));
+        List<String> csv = Files.readAllLines(tempDir.resolve("teams.csv"));
+        assertEquals(5, csv.size(), "Header plus four players, without drawing again");
+    }
+
+    @Test
+    @DisplayName("Should refuse edits and draws while the teams are locked")
+    void shouldRefuseEditsAndDrawsWhileTheTeamsAreLocked() throws IOException {
+        // Given
+        ShellSession session = session();
+        session.execute("lock");
+        assertTrue(output().contains("Error: Nothing drawn yet"));
+        session.execute("draw");
+        session.execute("lock");
+        output();
+
+        // When
+        session.execute("add Gus 3");
+        session.execute("draw");
+        String locked = output();
+        session.run(new BufferedReader(new StringReader("unlock\nadd Gus 3\nadd Hal 3\nplayers\nquit\nadd Ivy 3\n")));
+        String unlocked = output();
+
+        // Then
+        assertEquals(2, locked.split("Teams are locked", -1).length - 1);
+        assertTrue(unlocked.contains("Added Hal (6 players)"));
+        assertTrue(unlocked.contains("6 players, 2 teams"));
+        assertFalse(unlocked.contains("Ivy"), "Should stop reading at quit");
+    }
+}
@@ -4,10 +4,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import picocli.CommandLine;
 
 @DisplayName("TeamMakerApp Tests")
 class TeamMakerAppTest {
@@ -142,4 +146,79 @@ class TeamMakerAppTest {
         String output = outContent.toString();
         assertTrue(output.contains("TeamMaker"), "Version output should contain application name");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should accept a binary configuration file")
+    void shouldAcceptBinaryConfigurationFile(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path file = tempDir.resolve("team-config.tmr");
+        BinaryConfigLoader.saveToFile(JsonConfigLoader.loadFromResource("team-config.json"), file);
+
+        // When
+        TeamMakerApp.main(new String[]{file.toString()});
+
+        // Then
+        String output = outContent.toString();
+        assertTrue(output.contains("Team J"), "Output should contain team names from the binary file");
+        assertTrue(output.contains("Strength:"), "Output should contain strength information");
+    }
+
+    @Test
+    @DisplayName("Should write machine-readable output with --format")
+    void shouldWriteMachineReadableOutputWithFormat() {
+        // When
+        TeamMakerApp.main(new String[]{"--format", "csv"});
+
+        // Then
+        String output = outContent.toString();
+        assertTrue(output.startsWith("team,team_name,team_score,player,player_score"), "Output should be CSV");
+        assertFalse(output.contains("┌─"), "Output should not contain formatted team boxes");
+        assertEquals(21, output.lines().count(), "Output should have a header and one row per player");
+    }
+
+    @Test
+    @DisplayName("Should keep verbose status lines out of machine-readable output")
+    void shouldKeepVerboseStatusLinesOutOfMachineReadableOutput() {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        TeamMakerApp app = new TeamMakerApp(new PrintStream(out), new PrintStream(err), null, false);
+
+        // When
+        int exitCode = new CommandLine(app).execute("--verbose", "--format", "json", "--default");
+
+        // Then
+        assertEquals(0, exitCode);
+        assertTrue(out.toString().startsWith("{"), "Output should be a JSON document");
+        assertTrue(err.toString().contains("Using default hard-coded players..."));
+    }
+
+    @Test
+    @DisplayName("Should show the last draw when no balanced draw is possible")
+    void shouldShowTheLastDrawWhenNoBalancedDrawIsPossible(@TempDir Path tempDir) throws Exception {
+        // Given: both strong players are pinned to Red, so Blue is never within balance
+        Path file = tempDir.resolve("pinned.json");
+        Files.writeString(file, """
+                {
+                  "teamNames": ["Red", "Blue"],
+                  "players": [
+                    {"name": "A", "score": 5}, {"name": "B", "score": 5},
+                    {"name": "C", "score": 1}, {"name": "D", "score": 1}
+                  ],
+                  "scoreScale": {"min": 1, "max": 5},
+                  "pins": {"A": "Red", "B": "Red"}
+                }
+                """);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        TeamMakerApp app = new TeamMakerApp(new PrintStream(out), new PrintStream(err), null, false);
+
+        // When
+        int exitCode = new CommandLine(app).execute(file.toString());
+
+        // Then
+        assertEquals(0, exitCode);
+        assertTrue(out.toString().contains("Red"), "Output should contain the last draw");
+        assertTrue(err.toString().contains("no balanced draw found in " + TeamMakerBatch.DEFAULT_MAX_ATTEMPTS + " attempts"));
+    }
+}
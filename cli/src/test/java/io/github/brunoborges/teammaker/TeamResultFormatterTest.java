@@ -44,6 +44,21 @@ class TeamResultFormatterTest {
         assertTrue(output.contains("╔══════════════════════════════════════════════════════════════════╗"), "Should contain border decorations");
     }
 
+    @Test
+    @DisplayName("Should leave a blank line between the header and the first team")
+    void shouldLeaveABlankLineBetweenTheHeaderAndTheFirstTeam() {
+        // Given
+        TeamResultFormatter formatter = new TeamResultFormatter(false);
+        String newline = System.lineSeparator();
+
+        // When
+        formatter.printResults(createSimpleTestResult());
+
+        // Then
+        String output = outContent.toString().replaceAll("\u001B\\[[;\\d]*m", "");
+        assertTrue(output.contains("╝\n" + newline + newline + "┌─── Team #1"), output);
+    }
+
     @Test
     @DisplayName("Should display team information in formatted boxes")
     void shouldDisplayTeamInformationInFormattedBoxes() {
@@ -112,6 +127,29 @@ class TeamResultFormatterTest {
         assertTrue(output.contains("🎯 Excellent balance achieved"), "Should show excellent balance message");
     }
 
+    @Test
+    @DisplayName("Should limit listed teams and support summary-only output")
+    void shouldLimitListedTeamsAndSupportSummaryOnlyOutput() {
+        // Given
+        TeamMakerResult result = createSimpleTestResult();
+
+        // When
+        new TeamResultFormatter(false, false, 1, false).printResults(result);
+        String limited = outContent.toString();
+        outContent.reset();
+        new TeamResultFormatter(false, true, Integer.MAX_VALUE, false).printResults(result);
+        String summary = outContent.toString();
+
+        // Then
+        assertTrue(limited.contains("┌─── Team #1 - Team A"), "Should list the first team");
+        assertTrue(limited.contains("│   • Alice (4.0)"), "Should format player scores with one decimal");
+        assertFalse(limited.contains("Team #2"), "Should not list teams past the limit");
+        assertTrue(limited.contains("1 more teams not shown"), "Should count the teams left out");
+        assertFalse(limited.contains("\u001B["), "Should not emit color codes when colors are off");
+        assertFalse(summary.contains("┌───"), "Summary-only output should not list teams");
+        assertTrue(summary.contains("Strength Range: 7.0 - 7.0"), "Summary-only output should keep the summary");
+    }
+
     private TeamMakerResult createSimpleTestResult() {
         List<Team> teams = new ArrayList<>();
         
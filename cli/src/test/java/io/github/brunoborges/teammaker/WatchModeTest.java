@@ -0,0 +1,120 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@DisplayName("WatchMode Tests")
+class WatchModeTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String config(String bobScore, String teamNames) {
+        return """
+                {"players": [
+                  {"name": "Ann", "score": 4}, {"name": "Bob", "score": %s},
+                  {"name": "Cid", "score": 2}, {"name": "Dee", "score": 3}
+                ], "teamNames": [%s]}
+                """.formatted(bobScore, teamNames);
+    }
+
+    @Test
+    @DisplayName("Should redraw only when the roster or teams change")
+    void shouldRedrawOnlyWhenTheRosterOrTeamsChange() throws IOException {
+        // Given
+        Path file = tempDir.resolve("team-config.json");
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        WatchMode watchMode = new WatchMode(file, 0, 100, new PrintStream(messages, true, StandardCharsets.UTF_8));
+        List<TeamMakerResult> results = new ArrayList<>();
+        Files.writeString(file, config("3", "\"Red\", \"Blue\""));
+
+        // When
+        boolean first = watchMode.refresh(results::add);
+        boolean unchanged = watchMode.refresh(results::add);
+        Files.writeString(file, "  " + config("3", "\"Red\", \"Blue\""));
+        boolean reformatted = watchMode.refresh(results::add);
+        Files.writeString(file, config("\"oops\"", "\"Red\", \"Blue\""));
+        boolean broken = watchMode.refresh(results::add);
+        Files.writeString(file, config("1", "\"Red\", \"Blue\""));
+        boolean rescored = watchMode.refresh(results::add);
+        Files.writeString(file, config("1", "\"Red\""));
+        boolean regrouped = watchMode.refresh(results::add);
+
+        // Then
+        assertTrue(first);
+        assertFalse(unchanged, "Same content should not be re-read");
+        assertFalse(reformatted, "Same roster should not be redrawn");
+        assertFalse(broken, "Invalid saves should keep the previous teams");
+        assertTrue(rescored);
+        assertTrue(regrouped);
+        assertEquals(3, results.size());
+        assertEquals(1, results.get(2).getTeams().size());
+        String log = messages.toString(StandardCharsets.UTF_8);
+        assertTrue(log.contains("(keeping the previous teams)"));
+        assertTrue(log.contains("Roster changed: 0 added, 0 removed, 1 rescored"));
+        assertTrue(log.contains("Repaired the teams with"), "A rescore should repair rather than redraw");
+    }
+
+    @Test
+    @DisplayName("Should notice a binary configuration rewritten in place")
+    void shouldNoticeABinaryConfigurationRewrittenInPlace() throws IOException {
+        // Given
+        Path file = tempDir.resolve("team-config.tmr");
+        Path scratch = tempDir.resolve("scratch.tmr");
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        WatchMode watchMode = new WatchMode(file, 0, 100, new PrintStream(messages, true, StandardCharsets.UTF_8));
+        List<TeamMakerResult> results = new ArrayList<>();
+        BinaryConfigLoader.saveToFile(new TeamMakerConfig(List.of(new Player("Ann", 4), new Player("Bob", 3),
+                new Player("Cid", 2), new Player("Dee", 3)), List.of("Red", "Blue"), null), file);
+        BinaryConfigLoader.saveToFile(new TeamMakerConfig(List.of(new Player("Ann", 4), new Player("Bob", 1),
+                new Player("Cid", 2), new Player("Dee", 3)), List.of("Red", "Blue"), null), scratch);
+
+        // When
+        watchMode.refresh(results::add);
+        Files.write(file, Files.readAllBytes(scratch));
+        boolean rescored = watchMode.refresh(results::add);
+
+        // Then
+        assertTrue(rescored);
+        assertEquals(2, results.size());
+        assertTrue(messages.toString(StandardCharsets.UTF_8).contains("Roster changed: 0 added, 0 removed, 1 rescored"));
+    }
+
+    @Test
+    @DisplayName("Should keep the previous teams when a valid save cannot be drawn")
+    void shouldKeepThePreviousTeamsWhenASaveCannotBeDrawn() throws IOException {
+        // Given
+        Path file = tempDir.resolve("team-config.json");
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        WatchMode watchMode = new WatchMode(file, 0, 100, new PrintStream(messages, true, StandardCharsets.UTF_8));
+        List<TeamMakerResult> results = new ArrayList<>();
+        Files.writeString(file, config("3", "\"Red\", \"Blue\""));
+        watchMode.refresh(results::add);
+
+        // When: three players who must all be apart cannot fit two teams
+        Files.writeString(file, config("3", "\"Red\", \"Blue\"").replace("]}",
+                "], \"apart\": [[\"Ann\", \"Bob\"], [\"Bob\", \"Cid\"], [\"Ann\", \"Cid\"]]}"));
+        boolean impossible = watchMode.refresh(results::add);
+        Files.writeString(file, config("1", "\"Red\", \"Blue\""));
+        boolean rescored = watchMode.refresh(results::add);
+
+        // Then
+        assertFalse(impossible, "A save that cannot be drawn should keep the previous teams");
+        assertTrue(rescored);
+        assertEquals(2, results.size());
+        String log = messages.toString(StandardCharsets.UTF_8);
+        assertTrue(log.contains("(keeping the previous teams)"), log);
+        assertTrue(log.contains("Roster changed: 0 added, 0 removed, 1 rescored"), log);
+    }
+}
@@ -0,0 +1,304 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads and saves configurations in a compact binary format.
+ * <p>
+ * The file starts with a fixed {@value #HEADER_SIZE}-byte header, followed by
+ * the columns of an {@link OffHeapRoster} and the team names, all
+ * little-endian:
+ * <pre>
+ *  0  magic      0x89 'T' 'M' 'R'
+ *  4  version    int
+ *  8  flags      int, bit 0 set when a score scale is present
+ * 12  precision  int
+ * 16  min        double
+ * 24  max        double
+ * 32  players    int
+ * 36  names      int, distinct player names
+ * 40  nameBytes  int
+ * 44  teams      int
+ * 48  teamBytes  int
+ * 64  scores     long[players], fixed point
+ *     ids        int[players]
+ *     nameRefs   int[players]
+ *     nameIndex  int[names + 1], offsets into the name bytes
+ *     nameBytes  UTF-8
+ *     teamIndex  int[teams + 1], offsets into the team bytes
+ *     teamBytes  UTF-8
+ * </pre>
+ * Loading maps the file with {@link FileChannel#map} and wraps slices of the
+ * mapping as the roster columns, so no player data is copied or parsed.
+ */
+public class BinaryConfigLoader {
+
+    /**
+     * Format version written by this class.
+     */
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    private static final byte[] MAGIC = {(byte) 0x89, 'T', 'M', 'R'};
+    private static final int FLAG_SCORE_SCALE = 1;
+
+    private BinaryConfigLoader() {
+    }
+
+    /**
+     * Check whether a file starts with the binary format's magic bytes.
+     *
+     * @param filePath the file to check
+     * @return true if the file is in the binary format
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinary(Path filePath) throws IOException {
+        try (InputStream in = Files.newInputStream(filePath)) {
+            return Arrays.equals(MAGIC, in.readNBytes(MAGIC.length));
+        }
+    }
+
+    /**
+     * Map a binary configuration file into memory.
+     *
+     * @param filePath path to the binary configuration file
+     * @return TeamMakerConfig whose players are backed by the mapped file
+     * @throws IOException if the file cannot be read or is not a valid binary configuration
+     */
+    public static TeamMakerConfig loadFromFile(Path filePath) throws IOException {
+        ByteBuffer file;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary configuration is too large: " + channel.size() + " bytes");
+            }
+            // The mapping stays valid after the channel is closed
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(OffHeapRoster.ORDER);
+        }
+        TeamMakerConfig config = read(file, filePath.toString());
+        config.validate();
+        return config;
+    }
+
+    /**
+     * Check whether content starts with the binary format's magic bytes.
+     *
+     * @param content the content of a configuration file
+     * @return true if the content is in the binary format
+     */
+    public static boolean isBinary(byte[] content) {
+        return content.length >= MAGIC.length && Arrays.equals(MAGIC, 0, MAGIC.length, content, 0, MAGIC.length);
+    }
+
+    /**
+     * Parse a binary configuration that is already in memory. Unlike
+     * {@link #loadFromFile(Path)}, the players are copied into an on-heap list,
+     * so the configuration does not depend on the file or the array.
+     *
+     * @param content the content of a binary configuration file
+     * @return TeamMakerConfig with its players on the heap
+     * @throws IOException if the content is not a valid binary configuration
+     */
+    public static TeamMakerConfig loadFromBytes(byte[] content) throws IOException {
+        TeamMakerConfig columns = read(ByteBuffer.wrap(content).order(OffHeapRoster.ORDER), "binary content");
+        TeamMakerConfig config = new TeamMakerConfig(List.copyOf(columns.getPlayers()), columns.getTeamNames(),
+                columns.getScoreScale());
+        config.validate();
+        return config;
+    }
+
+    /**
+     * Read the sections of a binary configuration, without validating it.
+     *
+     * @param file   the whole content, little-endian
+     * @param source the file or content read, for error messages
+     * @return TeamMakerConfig whose players are backed by the buffer
+     */
+    private static TeamMakerConfig read(ByteBuffer file, String source) throws IOException {
+        if (file.capacity() < HEADER_SIZE) {
+            throw new IOException("Not a binary configuration: " + source);
+        }
+        byte[] magic = new byte[MAGIC.length];
+        file.get(0, magic);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("Not a binary configuration: " + source);
+        }
+        int version = file.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary configuration version: " + version);
+        }
+
+        int flags = file.getInt(8);
+        int precision = file.getInt(12);
+        int players = file.getInt(32);
+        int nameCount = file.getInt(36);
+        int nameBytes = file.getInt(40);
+        int teamCount = file.getInt(44);
+        int teamBytes = file.getInt(48);
+        if (players < 0 || nameCount < 0 || nameBytes < 0 || teamCount < 0 || teamBytes < 0) {
+            throw new IOException("Corrupt binary configuration header: " + source);
+        }
+
+        long expected = HEADER_SIZE + (long) players * (Long.BYTES + 2 * Integer.BYTES)
+                + (nameCount + 1L) * Integer.BYTES + nameBytes
+                + (teamCount + 1L) * Integer.BYTES + teamBytes;
+        if (expected != file.capacity()) {
+            throw new IOException(String.format("Binary configuration %s should be %d bytes but is %d",
+                    source, expected, file.capacity()));
+        }
+
+        Sections sections = new Sections(file);
+        ByteBuffer scores = sections.next(players * Long.BYTES);
+        ByteBuffer ids = sections.next(players * Integer.BYTES);
+        ByteBuffer nameRefs = sections.next(players * Integer.BYTES);
+        ByteBuffer nameOffsets = sections.next((nameCount + 1) * Integer.BYTES);
+        ByteBuffer names = sections.next(nameBytes);
+        ByteBuffer teamOffsets = sections.next((teamCount + 1) * Integer.BYTES);
+        ByteBuffer teams = sections.next(teamBytes);
+
+        checkOffsets(nameOffsets, nameCount, nameBytes, source);
+        checkOffsets(teamOffsets, teamCount, teamBytes, source);
+        for (int i = 0; i < players; i++) {
+            int ref = nameRefs.getInt(i * Integer.BYTES);
+            if (ref < 0 || ref >= nameCount) {
+                throw new IOException("Corrupt binary configuration: player " + i + " has no name in " + source);
+            }
+        }
+
+        TeamMakerConfig.ScoreScale scoreScale = null;
+        FixedPointScale scale;
+        try {
+            scale = FixedPointScale.of(precision);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt binary configuration header: " + e.getMessage(), e);
+        }
+        if ((flags & FLAG_SCORE_SCALE) != 0) {
+            scoreScale = new TeamMakerConfig.ScoreScale(file.getDouble(16), file.getDouble(24));
+            scoreScale.setPrecision(precision);
+        }
+
+        List<String> teamNames = new ArrayList<>(teamCount);
+        for (int t = 0; t < teamCount; t++) {
+            int start = teamOffsets.getInt(t * Integer.BYTES);
+            int end = teamOffsets.getInt((t + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            teams.get(start, bytes);
+            teamNames.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        OffHeapRoster roster = new OffHeapRoster(scale, players, nameCount, scores, ids, nameRefs, nameOffsets, names);
+        return new TeamMakerConfig(roster, teamNames, scoreScale);
+    }
+
+    private static void checkOffsets(ByteBuffer offsets, int count, int length, String source) throws IOException {
+        int previous = 0;
+        for (int k = 0; k <= count; k++) {
+            int offset = offsets.getInt(k * Integer.BYTES);
+            if (offset < previous || offset > length || (k == 0 && offset != 0)) {
+                throw new IOException("Corrupt binary configuration: bad string table in " + source);
+            }
+            previous = offset;
+        }
+    }
+
+    /**
+     * Save a configuration in the binary format. The file is written next to
+     * the target and moved into place, so a configuration loaded from the
+     * target, and still mapped, can be saved back to it.
+     *
+     * @param config   the configuration to save
+     * @param filePath path where to save the binary file
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the configuration has constraints
+     *                                  or tags, which the binary format does
+     *                                  not store
+     */
+    public static void saveToFile(TeamMakerConfig config, Path filePath) throws IOException {
+        if (config.hasConstraints() || !config.getTags().isEmpty()) {
+            throw new IllegalArgumentException("The binary format cannot hold constraints or tags; save the configuration as JSON");
+        }
+        FixedPointScale scale = config.fixedPointScale();
+        List<Player> players = config.getPlayers() != null ? config.getPlayers() : List.of();
+        OffHeapRoster roster = players instanceof OffHeapRoster offHeap && offHeap.scale() == scale
+                ? offHeap
+                : OffHeapRoster.of(players, scale);
+
+        List<String> teamNames = config.getTeamNames() != null ? config.getTeamNames() : List.of();
+        ByteBuffer teamOffsets = ByteBuffer.allocate((teamNames.size() + 1) * Integer.BYTES).order(OffHeapRoster.ORDER);
+        List<byte[]> encodedTeams = new ArrayList<>(teamNames.size());
+        int teamBytes = 0;
+        for (String name : teamNames) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            encodedTeams.add(bytes);
+            teamOffsets.putInt(teamBytes);
+            teamBytes += bytes.length;
+        }
+        teamOffsets.putInt(teamBytes).flip();
+        ByteBuffer teams = ByteBuffer.allocate(teamBytes);
+        encodedTeams.forEach(teams::put);
+        teams.flip();
+
+        TeamMakerConfig.ScoreScale scoreScale = config.getScoreScale();
+        ByteBuffer names = roster.names();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(OffHeapRoster.ORDER);
+        header.put(MAGIC)
+                .putInt(VERSION)
+                .putInt(scoreScale != null ? FLAG_SCORE_SCALE : 0)
+                .putInt(scale.precision())
+                .putDouble(scoreScale != null ? scoreScale.getMin() : 0)
+                .putDouble(scoreScale != null ? scoreScale.getMax() : 0)
+                .putInt(roster.size())
+                .putInt(roster.nameCount())
+                .putInt(names.remaining())
+                .putInt(teamNames.size())
+                .putInt(teamBytes)
+                .position(0);
+
+        ByteBuffer[] sections = {header, roster.scores(), roster.ids(), roster.nameRefs(), roster.nameOffsets(),
+                names, teamOffsets, teams};
+        // The roster may be a mapping of the target file itself, and other
+        // processes may have it mapped, so the file is replaced, never rewritten
+        Path directory = filePath.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, filePath.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (sections[sections.length - 1].hasRemaining()) {
+                    channel.write(sections);
+                }
+            }
+            Files.move(temp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Cuts consecutive sections out of the mapped file.
+     */
+    private static final class Sections {
+
+        private final ByteBuffer file;
+        private int offset = HEADER_SIZE;
+
+        Sections(ByteBuffer file) {
+            this.file = file;
+        }
+
+        ByteBuffer next(int length) {
+            ByteBuffer section = file.slice(offset, length).order(OffHeapRoster.ORDER);
+            offset += length;
+            return section;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Small buffered UTF-8 encoder used by the result writers.
+ * <p>
+ * Characters and fixed-point numbers are encoded straight into a byte
+ * buffer that is handed to the output stream when full, so writing a result
+ * creates no intermediate strings.
+ */
+final class ByteSink {
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int count;
+
+    ByteSink(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * @param text ASCII text, such as a header or separator
+     * @return the text encoded once for repeated {@link #write(byte[])} calls
+     */
+    static byte[] encode(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    ByteSink write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - count) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return this;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    ByteSink write(char ascii) throws IOException {
+        ensure(1);
+        buffer[count++] = (byte) ascii;
+        return this;
+    }
+
+    /**
+     * Encode text as UTF-8.
+     */
+    ByteSink text(CharSequence text) throws IOException {
+        return text(text, 0, text.length());
+    }
+
+    /**
+     * Encode the characters {@code [start, end)} of a text as UTF-8.
+     */
+    ByteSink text(CharSequence text, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            ensure(4);
+            if (c < 0x80) {
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xc0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[count++] = (byte) (0xf0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                buffer[count++] = '?';
+            } else {
+                buffer[count++] = (byte) (0xe0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[count++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return this;
+    }
+
+    ByteSink number(long value) throws IOException {
+        ensure(20);
+        if (value < 0) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int start = count;
+        do {
+            buffer[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        reverse(start, count - 1);
+        return this;
+    }
+
+    /**
+     * Write a fixed-point number in decimal, with at least one and at most
+     * {@code scale.precision()} fraction digits, e.g. {@code 4.0} or {@code 3.25}.
+     */
+    ByteSink decimal(long fixed, FixedPointScale scale) throws IOException {
+        if (fixed < 0) {
+            write('-');
+            fixed = -fixed;
+        }
+        number(fixed / scale.factor());
+        write('.');
+        long fraction = fixed % scale.factor();
+        int digits = Math.max(1, scale.precision());
+        while (digits > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        ensure(digits);
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[count + i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        count += digits;
+        return this;
+    }
+
+    /**
+     * Hand buffered bytes to the stream and flush it. The stream is not closed.
+     */
+    void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.length - count < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte tmp = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = tmp;
+        }
+    }
+}
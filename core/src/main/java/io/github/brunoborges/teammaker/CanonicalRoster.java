@@ -0,0 +1,385 @@
+package io.github.brunoborges.teammaker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Canonical, name-free form of a roster.
+ * <p>
+ * Players with equal scores are interchangeable when balancing, and so are
+ * teams (they all have the same size). This class sorts the roster by score,
+ * collapses equal scores into classes and describes a solution as the number
+ * of players each team takes from each class. Two rosters with the same
+ * scores and team count therefore share one canonical form and one
+ * {@link #canonicalHash() canonical hash}, whatever the player names are.
+ * <p>
+ * Scores are compared in {@link FixedPointScale fixed point}, so equality is
+ * exact and the roster is sorted with a radix sort on the integer keys.
+ * An {@link OffHeapRoster} is referenced rather than copied, and its score
+ * column is read without materializing players.
+ */
+public final class CanonicalRoster {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final List<Player> players;
+    private final int teamCount;
+    private final FixedPointScale scale;
+    private final long[] classScores;
+    private final int[] classStart;
+    private final int[] members;
+    private final int[] classOf;
+    private final long canonicalHash;
+
+    private CanonicalRoster(List<Player> players, int teamCount, FixedPointScale scale) {
+        // An off-heap roster is already immutable and is read column-wise
+        this.players = players instanceof OffHeapRoster ? players : List.copyOf(players);
+        this.teamCount = teamCount;
+        this.scale = scale;
+
+        int size = this.players.size();
+        long[] keys = new long[size];
+        if (players instanceof OffHeapRoster offHeap && offHeap.scale() == scale) {
+            for (int i = 0; i < size; i++) {
+                keys[i] = offHeap.fixedScore(i);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                keys[i] = scale.toFixed(this.players.get(i).score());
+            }
+        }
+        this.members = sortedIndices(keys);
+
+        long[] scores = new long[size];
+        int[] starts = new int[size + 1];
+        this.classOf = new int[size];
+        int classes = 0;
+        for (int k = 0; k < size; k++) {
+            long score = keys[members[k]];
+            if (classes == 0 || scores[classes - 1] != score) {
+                scores[classes] = score;
+                starts[classes] = k;
+                classes++;
+            }
+            classOf[members[k]] = classes - 1;
+        }
+        starts[classes] = size;
+
+        this.classScores = Arrays.copyOf(scores, classes);
+        this.classStart = Arrays.copyOf(starts, classes + 1);
+        this.canonicalHash = computeHash();
+    }
+
+    /**
+     * Builds the canonical form of a roster using the default fixed-point scale.
+     *
+     * @param players   the players in their original order
+     * @param teamCount the number of teams the players are split into
+     * @return the canonical roster
+     * @throws IllegalArgumentException if the players cannot be split evenly
+     */
+    public static CanonicalRoster of(List<Player> players, int teamCount) {
+        return of(players, teamCount, FixedPointScale.DEFAULT);
+    }
+
+    /**
+     * Builds the canonical form of a roster.
+     *
+     * @param players   the players in their original order
+     * @param teamCount the number of teams the players are split into
+     * @param scale     fixed-point scale scores are compared with
+     * @return the canonical roster
+     * @throws IllegalArgumentException if the players cannot be split evenly
+     */
+    public static CanonicalRoster of(List<Player> players, int teamCount, FixedPointScale scale) {
+        if (teamCount < 1) {
+            throw new IllegalArgumentException("Team count must be at least 1, but was " + teamCount);
+        }
+        if (players.size() % teamCount != 0) {
+            throw new IllegalArgumentException(
+                String.format("Number of players (%d) must be evenly divisible by number of teams (%d)",
+                            players.size(), teamCount));
+        }
+        return new CanonicalRoster(players, teamCount, scale);
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    public int teamCount() {
+        return teamCount;
+    }
+
+    public int playersPerTeam() {
+        return players.size() / teamCount;
+    }
+
+    public FixedPointScale scale() {
+        return scale;
+    }
+
+    /**
+     * @return the players in their original order
+     */
+    public List<Player> players() {
+        return players;
+    }
+
+    public Player player(int index) {
+        return players.get(index);
+    }
+
+    /**
+     * @return number of distinct scores in the roster
+     */
+    public int classCount() {
+        return classScores.length;
+    }
+
+    /**
+     * @param scoreClass class index, in ascending score order
+     * @return the score shared by every player of the class
+     */
+    public double classScore(int scoreClass) {
+        return scale.toDouble(classScores[scoreClass]);
+    }
+
+    /**
+     * @param scoreClass class index, in ascending score order
+     * @return the score shared by every player of the class, in fixed point
+     */
+    public long classFixedScore(int scoreClass) {
+        return classScores[scoreClass];
+    }
+
+    /**
+     * @param scoreClass class index, in ascending score order
+     * @return the number of players in the class
+     */
+    public int classSize(int scoreClass) {
+        return classStart[scoreClass + 1] - classStart[scoreClass];
+    }
+
+    /**
+     * @param scoreClass class index, in ascending score order
+     * @param k          position within the class
+     * @return the roster index of the k-th player of the class
+     */
+    public int member(int scoreClass, int k) {
+        return members[classStart[scoreClass] + k];
+    }
+
+    /**
+     * @param score a player score
+     * @return the class holding that score, or -1 if no player has it
+     */
+    public int classIndex(double score) {
+        int index = Arrays.binarySearch(classScores, scale.toFixed(score));
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * @param playerIndex roster index of a player
+     * @return the score class the player belongs to
+     */
+    public int classOf(int playerIndex) {
+        return classOf[playerIndex];
+    }
+
+    /**
+     * Stable 64-bit hash of the scores and team count, independent of names,
+     * player order and JVM.
+     *
+     * @return the canonical hash
+     */
+    public long canonicalHash() {
+        return canonicalHash;
+    }
+
+    /**
+     * Check whether another roster has the same canonical form, meaning the
+     * same score classes with the same sizes and the same team count.
+     *
+     * @param other the roster to compare with
+     * @return true if a solution of one roster is a solution of the other
+     */
+    public boolean hasSameShape(CanonicalRoster other) {
+        return canonicalHash == other.canonicalHash
+                && teamCount == other.teamCount
+                && scale == other.scale
+                && Arrays.equals(classScores, other.classScores)
+                && Arrays.equals(classStart, other.classStart);
+    }
+
+    /**
+     * Reduce an assignment to its canonical form.
+     *
+     * @param teamOf team index of every player, by roster index
+     * @return for each team, the number of players taken from each class;
+     *         teams are sorted so that equivalent assignments compare equal
+     */
+    public int[][] canonicalize(int[] teamOf) {
+        if (teamOf.length != players.size()) {
+            throw new IllegalArgumentException(
+                String.format("Assignment covers %d players but the roster has %d", teamOf.length, players.size()));
+        }
+        int[][] solution = new int[teamCount][classScores.length];
+        for (int i = 0; i < teamOf.length; i++) {
+            solution[teamOf[i]][classOf[i]]++;
+        }
+        Arrays.sort(solution, Arrays::compare);
+        return solution;
+    }
+
+    /**
+     * Reduce drawn teams to their canonical form.
+     *
+     * @param teams teams holding exactly the players of this roster
+     * @return for each team, the number of players taken from each class;
+     *         teams are sorted so that equivalent assignments compare equal
+     * @throws IllegalArgumentException if the teams do not match this roster
+     */
+    public int[][] canonicalize(List<Team> teams) {
+        if (teams.size() != teamCount) {
+            throw new IllegalArgumentException(
+                String.format("Got %d teams but the roster needs %d", teams.size(), teamCount));
+        }
+        int[][] solution = new int[teamCount][classScores.length];
+        for (int t = 0; t < teamCount; t++) {
+            for (Player player : teams.get(t).getPlayers()) {
+                int scoreClass = classIndex(player.score());
+                if (scoreClass < 0) {
+                    throw new IllegalArgumentException("Player " + player.name() + " is not part of the roster");
+                }
+                solution[t][scoreClass]++;
+            }
+        }
+        Arrays.sort(solution, Arrays::compare);
+        return solution;
+    }
+
+    /**
+     * Map a canonical solution back to concrete players. Players are chosen at
+     * random among those sharing a score, and canonical teams are dealt to
+     * team indices at random.
+     *
+     * @param solution for each team, the number of players taken from each class
+     * @param random   source of randomness
+     * @return team index of every player, by roster index
+     * @throws IllegalArgumentException if the solution does not fit this roster
+     */
+    public int[] expand(int[][] solution, Random random) {
+        if (solution.length != teamCount) {
+            throw new IllegalArgumentException(
+                String.format("Solution has %d teams but the roster needs %d", solution.length, teamCount));
+        }
+        int[] teamOrder = shuffledRange(teamCount, random);
+        int[] pool = members.clone();
+        int[] next = Arrays.copyOf(classStart, classStart.length - 1);
+        for (int c = 0; c < classScores.length; c++) {
+            shuffle(pool, classStart[c], classStart[c + 1], random);
+        }
+
+        int[] teamOf = new int[players.size()];
+        for (int t = 0; t < teamCount; t++) {
+            int[] counts = solution[t];
+            if (counts.length != classScores.length) {
+                throw new IllegalArgumentException("Solution does not match the roster score classes");
+            }
+            for (int c = 0; c < counts.length; c++) {
+                if (next[c] + counts[c] > classStart[c + 1]) {
+                    throw new IllegalArgumentException("Solution uses more players than score class " + c + " has");
+                }
+                for (int k = 0; k < counts[c]; k++) {
+                    teamOf[pool[next[c]++]] = teamOrder[t];
+                }
+            }
+        }
+        for (int c = 0; c < classScores.length; c++) {
+            if (next[c] != classStart[c + 1]) {
+                throw new IllegalArgumentException("Solution leaves players of score class " + c + " unassigned");
+            }
+        }
+        return teamOf;
+    }
+
+    private long computeHash() {
+        long hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, teamCount);
+        hash = mix(hash, scale.precision());
+        hash = mix(hash, classScores.length);
+        for (int c = 0; c < classScores.length; c++) {
+            hash = mix(hash, classScores[c]);
+            hash = mix(hash, classSize(c));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Stable LSD radix sort of roster indices by fixed-point score, one byte
+     * per pass. Passes where every key has the same byte are skipped, so
+     * typical small scores only cost one or two passes.
+     */
+    private static int[] sortedIndices(long[] keys) {
+        int size = keys.length;
+        int[] order = new int[size];
+        int[] buffer = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] counts = new int[257];
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            Arrays.fill(counts, 0);
+            for (long key : keys) {
+                counts[digit(key, shift) + 1]++;
+            }
+            if (size == 0 || counts[digit(keys[0], shift) + 1] == size) {
+                continue;
+            }
+            for (int d = 0; d < 256; d++) {
+                counts[d + 1] += counts[d];
+            }
+            for (int index : order) {
+                buffer[counts[digit(keys[index], shift)]++] = index;
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    private static int digit(long key, int shift) {
+        // Flip the sign bit so negative scores sort before positive ones
+        return (int) (((key ^ Long.MIN_VALUE) >>> shift) & 0xff);
+    }
+
+    private static int[] shuffledRange(int size, Random random) {
+        int[] range = new int[size];
+        for (int i = 0; i < size; i++) {
+            range[i] = i;
+        }
+        shuffle(range, 0, size, random);
+        return range;
+    }
+
+    private static void shuffle(int[] values, int from, int to, Random random) {
+        for (int i = to - 1; i > from; i--) {
+            int j = from + random.nextInt(i - from + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact, index-based encoding of a draw.
+ * <p>
+ * Instead of an object graph of teams and players, a draw is stored as one
+ * {@code int} per player (the index of its team) plus one {@code double}
+ * per team (its strength). A million-player draw takes a few megabytes and
+ * serializes as flat arrays with {@link #writeTo(DataOutput)}.
+ */
+public final class CompactAssignment {
+
+    private final int[] teamOf;
+    private final double[] teamSums;
+    private final List<String> teamNames;
+
+    /**
+     * Creates an assignment. The arrays are not copied.
+     *
+     * @param teamOf    team index of every player, by roster index
+     * @param teamSums  strength of every team, by team index
+     * @param teamNames name of every team, by team index
+     * @throws IllegalArgumentException if the team arrays disagree in length
+     */
+    public CompactAssignment(int[] teamOf, double[] teamSums, List<String> teamNames) {
+        if (teamSums.length != teamNames.size()) {
+            throw new IllegalArgumentException(
+                String.format("Got %d team sums but %d team names", teamSums.length, teamNames.size()));
+        }
+        this.teamOf = teamOf;
+        this.teamSums = teamSums;
+        this.teamNames = List.copyOf(teamNames);
+    }
+
+    public int getPlayerCount() {
+        return teamOf.length;
+    }
+
+    public int getTeamCount() {
+        return teamSums.length;
+    }
+
+    /**
+     * @param playerIndex index of the player in the input roster
+     * @return index of the team the player was drawn into
+     */
+    public int teamOf(int playerIndex) {
+        return teamOf[playerIndex];
+    }
+
+    /**
+     * @param teamIndex index of the team
+     * @return strength of the team
+     */
+    public double teamSum(int teamIndex) {
+        return teamSums[teamIndex];
+    }
+
+    public String teamName(int teamIndex) {
+        return teamNames.get(teamIndex);
+    }
+
+    public List<String> getTeamNames() {
+        return teamNames;
+    }
+
+    /**
+     * Write the assignment as flat binary arrays.
+     *
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(teamSums.length);
+        for (int t = 0; t < teamSums.length; t++) {
+            out.writeUTF(teamNames.get(t));
+            out.writeDouble(teamSums[t]);
+        }
+        out.writeInt(teamOf.length);
+        for (int team : teamOf) {
+            out.writeInt(team);
+        }
+    }
+
+    /**
+     * Read an assignment written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the source
+     * @return the assignment
+     * @throws IOException if reading fails or the data is malformed
+     */
+    public static CompactAssignment readFrom(DataInput in) throws IOException {
+        int teamCount = in.readInt();
+        if (teamCount < 0) {
+            throw new IOException("Invalid team count: " + teamCount);
+        }
+        List<String> names = new ArrayList<>(teamCount);
+        double[] sums = new double[teamCount];
+        for (int t = 0; t < teamCount; t++) {
+            names.add(in.readUTF());
+            sums[t] = in.readDouble();
+        }
+        int playerCount = in.readInt();
+        if (playerCount < 0) {
+            throw new IOException("Invalid player count: " + playerCount);
+        }
+        int[] teamOf = new int[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            teamOf[i] = in.readInt();
+            if (teamOf[i] < 0 || teamOf[i] >= teamCount) {
+                throw new IOException("Player " + i + " is assigned to unknown team " + teamOf[i]);
+            }
+        }
+        return new CompactAssignment(teamOf, sums, names);
+    }
+}
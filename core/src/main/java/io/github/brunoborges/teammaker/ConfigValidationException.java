@@ -0,0 +1,66 @@
+package io.github.brunoborges.teammaker;
+
+import java.util.List;
+
+/**
+ * Thrown when a configuration has one or more validation errors.
+ * <p>
+ * All errors found in a single pass are reported together, so a broken
+ * upload can be fixed in one go instead of one error at a time.
+ */
+public class ConfigValidationException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    // An array rather than a List, so the field is serializable
+    private final String[] errors;
+    private final int errorCount;
+
+    /**
+     * @param errors the validation errors, in document order
+     */
+    public ConfigValidationException(List<String> errors) {
+        this(errors, errors.size());
+    }
+
+    /**
+     * @param errors     the reported validation errors, in document order
+     * @param errorCount the total number of errors found, which may be larger
+     *                   than the number of errors reported
+     */
+    public ConfigValidationException(List<String> errors, int errorCount) {
+        super(describe(errors, errorCount));
+        this.errors = errors.toArray(new String[0]);
+        this.errorCount = errorCount;
+    }
+
+    /**
+     * @return the reported validation errors, in document order
+     */
+    public List<String> getErrors() {
+        return List.of(errors);
+    }
+
+    /**
+     * @return the total number of errors found
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    private static String describe(List<String> errors, int errorCount) {
+        if (errorCount == 1 && errors.size() == 1) {
+            return errors.get(0);
+        }
+        StringBuilder message = new StringBuilder()
+                .append("Configuration has ").append(errorCount).append(" errors:");
+        for (String error : errors) {
+            message.append(System.lineSeparator()).append("  - ").append(error);
+        }
+        if (errorCount > errors.size()) {
+            message.append(System.lineSeparator()).append("  ... and ")
+                    .append(errorCount - errors.size()).append(" more");
+        }
+        return message.toString();
+    }
+}
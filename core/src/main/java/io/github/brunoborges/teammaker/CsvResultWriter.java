@@ -0,0 +1,61 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a result as CSV with one row per player:
+ * <pre>
+ * team,team_name,team_score,player,player_score
+ * 1,Team A,7.0,Alex,3.0
+ * </pre>
+ * Names containing commas, quotes or line breaks are quoted. Rows are
+ * encoded directly into a byte buffer; scores are printed from their fixed
+ * point value, so no strings are built along the way.
+ */
+public class CsvResultWriter implements ResultWriter {
+
+    private static final byte[] HEADER = ByteSink.encode("team,team_name,team_score,player,player_score\n");
+
+    @Override
+    public void write(TeamMakerResult result, OutputStream out) throws IOException {
+        ByteSink sink = new ByteSink(out);
+        sink.write(HEADER);
+        int number = 1;
+        for (Team team : result.getTeams()) {
+            FixedPointScale scale = team.getScale();
+            for (Player player : team.getPlayers()) {
+                sink.number(number).write(',');
+                field(sink, team.getName()).write(',');
+                sink.decimal(team.getFixedScore(), scale).write(',');
+                field(sink, player.name()).write(',');
+                sink.decimal(scale.toFixed(player.score()), scale).write('\n');
+            }
+            number++;
+        }
+        sink.flush();
+    }
+
+    private static ByteSink field(ByteSink sink, String value) throws IOException {
+        if (!needsQuotes(value)) {
+            return sink.text(value);
+        }
+        sink.write('"');
+        int start = 0;
+        for (int i = value.indexOf('"'); i >= 0; i = value.indexOf('"', start)) {
+            sink.text(value, start, i + 1).write('"');
+            start = i + 1;
+        }
+        return sink.text(value, start, value.length()).write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,419 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Imports a roster from a CSV or TSV export.
+ * <p>
+ * Rows are streamed through a buffered reader and appended to an
+ * {@link OffHeapRoster} one at a time, so large exports load without an
+ * intermediate JSON document. Scores are checked against the
+ * {@link TeamMakerConfig.ScoreScale score scale} as rows arrive; like
+ * {@link StreamingConfigLoader}, all problems are collected and reported
+ * together in one {@link ConfigValidationException}.
+ * <p>
+ * Fields may be quoted with double quotes, in which case they can contain
+ * the delimiter, line breaks and doubled quotes. By default the first row is
+ * a header and the {@code name} and {@code score} columns are used.
+ */
+public class CsvRosterImporter {
+
+    /**
+     * Longest field accepted, in characters. Guards against unterminated quotes
+     * swallowing the rest of the file.
+     */
+    public static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final char delimiter;
+    private boolean header = true;
+    private String nameHeader = "name";
+    private String scoreHeader = "score";
+    private int nameColumn = -1;
+    private int scoreColumn = -1;
+    private List<String> teamNames;
+    private int teamCount;
+    private TeamMakerConfig.ScoreScale scoreScale;
+    private int maxPlayers = StreamingConfigLoader.DEFAULT_MAX_PLAYERS;
+
+    public CsvRosterImporter(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * @return an importer for comma-separated values
+     */
+    public static CsvRosterImporter csv() {
+        return new CsvRosterImporter(',');
+    }
+
+    /**
+     * @return an importer for tab-separated values
+     */
+    public static CsvRosterImporter tsv() {
+        return new CsvRosterImporter('\t');
+    }
+
+    /**
+     * Choose an importer by file extension: {@code .tsv} and {@code .tab}
+     * files are tab-separated, everything else comma-separated.
+     *
+     * @param filePath the file to import
+     * @return the importer
+     */
+    public static CsvRosterImporter forFile(Path filePath) {
+        String name = filePath.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".tsv") || name.endsWith(".tab") ? tsv() : csv();
+    }
+
+    /**
+     * Treat the first row as data instead of a header. Columns must then be
+     * chosen by index.
+     *
+     * @return this importer
+     */
+    public CsvRosterImporter withoutHeader() {
+        this.header = false;
+        return this;
+    }
+
+    public CsvRosterImporter withNameColumn(String headerName) {
+        this.nameHeader = headerName;
+        this.nameColumn = -1;
+        return this;
+    }
+
+    /**
+     * @param index zero-based column index
+     * @return this importer
+     */
+    public CsvRosterImporter withNameColumn(int index) {
+        this.nameColumn = index;
+        return this;
+    }
+
+    public CsvRosterImporter withScoreColumn(String headerName) {
+        this.scoreHeader = headerName;
+        this.scoreColumn = -1;
+        return this;
+    }
+
+    /**
+     * @param index zero-based column index
+     * @return this importer
+     */
+    public CsvRosterImporter withScoreColumn(int index) {
+        this.scoreColumn = index;
+        return this;
+    }
+
+    /**
+     * Names of the teams to draw. Without team names or a team count, players
+     * are split into teams of two with alphabet-based names.
+     *
+     * @param teamNames the team names
+     * @return this importer
+     */
+    public CsvRosterImporter withTeamNames(List<String> teamNames) {
+        this.teamNames = List.copyOf(teamNames);
+        return this;
+    }
+
+    /**
+     * Number of teams to draw, named alphabetically.
+     *
+     * @param teamCount the number of teams
+     * @return this importer
+     */
+    public CsvRosterImporter withTeamCount(int teamCount) {
+        this.teamCount = teamCount;
+        return this;
+    }
+
+    public CsvRosterImporter withScoreScale(TeamMakerConfig.ScoreScale scoreScale) {
+        this.scoreScale = scoreScale;
+        return this;
+    }
+
+    public CsvRosterImporter withMaxPlayers(int maxPlayers) {
+        this.maxPlayers = maxPlayers;
+        return this;
+    }
+
+    /**
+     * Import a roster file, decoded as UTF-8.
+     *
+     * @param filePath the CSV or TSV file
+     * @return the configuration, with its players stored off-heap
+     * @throws IOException               if the file cannot be read
+     * @throws ConfigValidationException if rows are invalid or a limit is exceeded
+     */
+    public TeamMakerConfig importFrom(Path filePath) throws IOException {
+        try (Reader reader = Files.newBufferedReader(filePath, StandardCharsets.UTF_8)) {
+            return importFrom(reader);
+        }
+    }
+
+    /**
+     * Import a roster from a character stream. The reader is not closed.
+     *
+     * @param reader the CSV or TSV data
+     * @return the configuration, with its players stored off-heap
+     * @throws IOException               if the data cannot be read
+     * @throws ConfigValidationException if rows are invalid or a limit is exceeded
+     */
+    public TeamMakerConfig importFrom(Reader reader) throws IOException {
+        Errors errors = new Errors();
+        RowReader rows = new RowReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader));
+        int nameIndex = nameColumn;
+        int scoreIndex = scoreColumn;
+
+        if (header && rows.next()) {
+            List<String> columns = rows.fields();
+            if (nameIndex < 0) {
+                nameIndex = findColumn(columns, nameHeader);
+            }
+            if (scoreIndex < 0) {
+                scoreIndex = findColumn(columns, scoreHeader);
+            }
+        }
+        if (nameIndex < 0) {
+            errors.add(header ? "Header has no '" + nameHeader + "' column" : "No name column index was given");
+        }
+        if (scoreIndex < 0) {
+            errors.add(header ? "Header has no '" + scoreHeader + "' column" : "No score column index was given");
+        }
+        if (errors.count() > 0) {
+            throw errors.exception();
+        }
+
+        OffHeapRoster.Builder players = OffHeapRoster.builder();
+        int required = Math.max(nameIndex, scoreIndex) + 1;
+        while (rows.next()) {
+            List<String> fields = rows.fields();
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            if (players.size() == maxPlayers) {
+                errors.add("Roster exceeds the limit of " + maxPlayers + " players");
+                throw errors.exception();
+            }
+            if (fields.size() < required) {
+                errors.add("Row " + rows.row() + ": expected at least " + required + " columns but found " + fields.size());
+                players.add("", 0);
+                continue;
+            }
+            String name = fields.get(nameIndex).trim();
+            String scoreText = fields.get(scoreIndex).trim();
+            double score = 0;
+            if (name.isEmpty()) {
+                errors.add("Row " + rows.row() + ": missing name");
+            } else if (name.length() > StreamingConfigLoader.DEFAULT_MAX_NAME_LENGTH) {
+                errors.add("Row " + rows.row() + ": name is longer than " + StreamingConfigLoader.DEFAULT_MAX_NAME_LENGTH + " characters");
+            }
+            try {
+                score = Double.parseDouble(scoreText);
+                if (!Double.isFinite(score)) {
+                    errors.add("Row " + rows.row() + ": score '" + scoreText + "' is not a finite number");
+                    score = 0;
+                } else if (scoreScale != null && !scoreScale.isValidScore(score)) {
+                    errors.add(String.format("Row %d: Player %s has score %.1f which is outside the valid range [%.1f, %.1f]",
+                            rows.row(), name, score, scoreScale.getMin(), scoreScale.getMax()));
+                }
+            } catch (NumberFormatException e) {
+                errors.add("Row " + rows.row() + ": score '" + scoreText + "' is not a number");
+            }
+            players.add(name, score);
+        }
+
+        FixedPointScale scale = FixedPointScale.DEFAULT;
+        if (scoreScale != null) {
+            if (scoreScale.getMin() >= scoreScale.getMax()) {
+                errors.add("Score scale minimum must be less than maximum");
+            }
+            try {
+                scale = scoreScale.fixedPointScale();
+            } catch (IllegalArgumentException e) {
+                errors.add(e.getMessage());
+            }
+        }
+        OffHeapRoster roster = players.build(scale);
+        List<String> teams = teamNames(roster.size());
+        if (roster.isEmpty()) {
+            errors.add("Players list cannot be null or empty");
+        } else if (teams.isEmpty()) {
+            errors.add("Team names list cannot be null or empty");
+        } else if (roster.size() % teams.size() != 0) {
+            errors.add(String.format("Number of players (%d) must be evenly divisible by number of teams (%d). " +
+                            "Current division results in %d players per team with %d remaining players.",
+                    roster.size(), teams.size(), roster.size() / teams.size(), roster.size() % teams.size()));
+        }
+        if (errors.count() > 0) {
+            throw errors.exception();
+        }
+        return new TeamMakerConfig(roster, teams, scoreScale);
+    }
+
+    private List<String> teamNames(int playerCount) {
+        if (teamNames != null) {
+            return teamNames;
+        }
+        int count = teamCount > 0 ? teamCount : playerCount / 2;
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(TeamMaker.teamName(null, i));
+        }
+        return names;
+    }
+
+    private static int findColumn(List<String> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).trim();
+            if (i == 0 && !column.isEmpty() && column.charAt(0) == '\uFEFF') {
+                // Spreadsheet exports often start with a byte order mark
+                column = column.substring(1);
+            }
+            if (column.equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects validation errors up to {@link StreamingConfigLoader#MAX_REPORTED_ERRORS}.
+     */
+    private static final class Errors {
+
+        private final List<String> messages = new ArrayList<>();
+        private int count;
+
+        void add(String message) {
+            if (messages.size() < StreamingConfigLoader.MAX_REPORTED_ERRORS) {
+                messages.add(message);
+            }
+            count++;
+        }
+
+        int count() {
+            return count;
+        }
+
+        ConfigValidationException exception() {
+            return new ConfigValidationException(messages, count);
+        }
+    }
+
+    /**
+     * Splits a character stream into rows of fields, honoring quotes.
+     */
+    private final class RowReader {
+
+        private final Reader in;
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private int row;
+        private int line = 1;
+        private int pending = -1;
+
+        RowReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * @return true if a row was read, false at the end of the input
+         */
+        boolean next() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            row = line;
+            int c = read();
+            if (c < 0) {
+                return false;
+            }
+            boolean quoted = false;
+            boolean fieldStart = true;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw new ConfigValidationException(List.of("Row " + row + ": unterminated quoted field"));
+                    }
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            append('"');
+                        } else {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        append((char) c);
+                    }
+                } else if (c < 0 || c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        int following = read();
+                        if (following != '\n') {
+                            pending = following;
+                        }
+                    }
+                    if (c >= 0) {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return true;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    fieldStart = true;
+                    c = read();
+                    continue;
+                } else if (c == '"' && fieldStart) {
+                    quoted = true;
+                } else {
+                    append((char) c);
+                }
+                fieldStart = false;
+                c = read();
+            }
+        }
+
+        List<String> fields() {
+            return fields;
+        }
+
+        /**
+         * @return the line number the current row started on
+         */
+        int row() {
+            return row;
+        }
+
+        private void append(char c) {
+            if (field.length() == MAX_FIELD_LENGTH) {
+                throw new ConfigValidationException(
+                        List.of("Row " + row + ": field is longer than " + MAX_FIELD_LENGTH + " characters"));
+            }
+            field.append(c);
+        }
+
+        private int read() throws IOException {
+            if (pending != -1) {
+                int c = pending;
+                pending = -1;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package io.github.brunoborges.teammaker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Placement rules of a configuration, resolved against one roster.
+ * <p>
+ * Players and teams are named in the configuration; the engines work on
+ * roster and team indices. This class resolves the names once, so that
+ * every placement check during a draw is an array lookup.
+ * <p>
+ * Players who must play together are merged with a union-find into groups
+ * that are placed as one unit. Players who must be apart make their groups
+ * conflict. A pin on any member of a group pins the whole group. Players
+ * with a tag that has a per-team quota are placed as units too, and every
+ * group knows how many players of each quota tag it holds.
+ */
+final class DrawConstraints {
+
+    /**
+     * No constraints: every player may go to any team.
+     */
+    static final DrawConstraints NONE = new DrawConstraints(null, null, null, null, null, null, null, null, null);
+
+    private final int[] pinnedTeam;
+    private final int[] groupOf;
+    private final int[] groupStart;
+    private final int[] groupMembers;
+    private final int[][] conflicts;
+    private final int[] quotaMin;
+    private final int[] quotaMax;
+    private final int[][] groupTags;
+    private final int[] pinnedTagCounts;
+
+    private DrawConstraints(int[] pinnedTeam, int[] groupOf, int[] groupStart, int[] groupMembers,
+            int[][] conflicts, int[] quotaMin, int[] quotaMax, int[][] groupTags, int[] pinnedTagCounts) {
+        this.pinnedTeam = pinnedTeam;
+        this.groupOf = groupOf;
+        this.groupStart = groupStart;
+        this.groupMembers = groupMembers;
+        this.conflicts = conflicts;
+        this.quotaMin = quotaMin;
+        this.quotaMax = quotaMax;
+        this.groupTags = groupTags;
+        this.pinnedTagCounts = pinnedTagCounts;
+    }
+
+    /**
+     * Resolve the constraints of a configuration against its own roster.
+     *
+     * @param config the configuration
+     * @return the resolved constraints
+     * @throws IllegalArgumentException if a constraint names an unknown player
+     *                                  or team, or cannot be satisfied
+     */
+    static DrawConstraints of(TeamMakerConfig config) {
+        return of(config.getPlayers(), config.getTeamNames(), config);
+    }
+
+    /**
+     * Resolve the constraints of a configuration against a roster.
+     *
+     * @param players   the roster, by index
+     * @param teamNames the team names, by team index
+     * @param rules     the configuration holding the pins, pairings, tags
+     *                  and quotas
+     * @return the resolved constraints
+     * @throws IllegalArgumentException if a constraint names an unknown or
+     *                                  ambiguous player or an unknown team,
+     *                                  or the constraints contradict each
+     *                                  other or do not fit the teams
+     */
+    static DrawConstraints of(List<Player> players, List<String> teamNames, TeamMakerConfig rules) {
+        if (!rules.hasConstraints()) {
+            return NONE;
+        }
+        int teamCount = teamNames.size();
+        int playersPerTeam = players.size() / teamCount;
+        Map<String, Integer> index = indexNamed(players, rules);
+
+        // Union-find over the players named by 'together' constraints
+        int[] parent = new int[players.size()];
+        Arrays.fill(parent, -1);
+        for (List<String> names : rules.getTogether()) {
+            checkSize(names, "together");
+            int first = index.get(names.get(0));
+            for (String name : names) {
+                union(parent, first, index.get(name));
+            }
+        }
+        for (List<String> names : rules.getApart()) {
+            checkSize(names, "apart");
+            if (names.size() > teamCount) {
+                throw new IllegalArgumentException(names.size() + " players who must be apart cannot be split across "
+                        + teamCount + " teams");
+            }
+            for (String name : names) {
+                int player = index.get(name);
+                if (parent[player] < 0) {
+                    parent[player] = player;
+                }
+            }
+        }
+
+        // Players with a quota tag, and how many of each tag every player has
+        List<String> quotaTags = List.copyOf(rules.getQuotas().keySet());
+        int[] quotaMin = new int[quotaTags.size()];
+        int[] quotaMax = new int[quotaTags.size()];
+        Map<Integer, List<Integer>> tagsOf = new HashMap<>();
+        for (int q = 0; q < quotaTags.size(); q++) {
+            String tag = quotaTags.get(q);
+            TeamMakerConfig.Quota quota = rules.getQuotas().get(tag);
+            List<String> names = rules.getTags().get(tag);
+            if (names == null) {
+                throw new IllegalArgumentException("Quota for unknown tag " + tag);
+            }
+            quotaMin[q] = quota.getMin();
+            quotaMax[q] = quota.getMax();
+            if (quotaMin[q] < 0 || quotaMax[q] < quotaMin[q]) {
+                throw new IllegalArgumentException("Quota for tag " + tag + " must have 0 <= min <= max");
+            }
+            long fewest = (long) quotaMin[q] * teamCount;
+            long most = (long) quotaMax[q] * teamCount;
+            if (names.size() < fewest || names.size() > most) {
+                throw new IllegalArgumentException(String.format(
+                        "Tag %s has %d players, but its quota of %d to %d per team needs %d to %d",
+                        tag, names.size(), quotaMin[q], quotaMax[q], fewest, most));
+            }
+            for (String name : names) {
+                int player = index.get(name);
+                if (parent[player] < 0) {
+                    parent[player] = player;
+                }
+                tagsOf.computeIfAbsent(player, key -> new ArrayList<>(1)).add(q);
+            }
+        }
+
+        // Number the groups and list their members contiguously
+        int[] groupOf = new int[players.size()];
+        Arrays.fill(groupOf, -1);
+        List<Integer> roots = new ArrayList<>();
+        int[] rootGroup = new int[players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            if (parent[i] >= 0) {
+                int root = find(parent, i);
+                if (root == i) {
+                    rootGroup[i] = roots.size();
+                    roots.add(i);
+                }
+            }
+        }
+        int groupCount = roots.size();
+        int[] groupStart = new int[groupCount + 1];
+        for (int i = 0; i < players.size(); i++) {
+            if (parent[i] >= 0) {
+                groupOf[i] = rootGroup[find(parent, i)];
+                groupStart[groupOf[i] + 1]++;
+            }
+        }
+        for (int g = 0; g < groupCount; g++) {
+            if (groupStart[g + 1] > playersPerTeam) {
+                throw new IllegalArgumentException(groupStart[g + 1] + " players who must play together do not fit "
+                        + "in a team of " + playersPerTeam);
+            }
+            groupStart[g + 1] += groupStart[g];
+        }
+        int[] groupMembers = new int[groupStart[groupCount]];
+        int[] next = Arrays.copyOf(groupStart, groupCount);
+        for (int i = 0; i < players.size(); i++) {
+            if (groupOf[i] >= 0) {
+                groupMembers[next[groupOf[i]]++] = i;
+            }
+        }
+
+        List<Set<Integer>> conflictSets = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            conflictSets.add(new HashSet<>());
+        }
+        for (List<String> names : rules.getApart()) {
+            for (int a = 0; a < names.size(); a++) {
+                for (int b = a + 1; b < names.size(); b++) {
+                    int first = groupOf[index.get(names.get(a))];
+                    int second = groupOf[index.get(names.get(b))];
+                    if (first == second) {
+                        throw new IllegalArgumentException(names.get(a) + " and " + names.get(b)
+                                + " cannot both play together and be apart");
+                    }
+                    conflictSets.get(first).add(second);
+                    conflictSets.get(second).add(first);
+                }
+            }
+        }
+        int[][] conflicts = new int[groupCount][];
+        for (int g = 0; g < groupCount; g++) {
+            conflicts[g] = conflictSets.get(g).stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+
+        int[] pinnedTeam = resolvePins(players, teamNames, rules, index, groupOf, groupStart, groupMembers);
+        checkPinnedGroups(pinnedTeam, groupStart, groupMembers, conflicts, players, teamNames, playersPerTeam);
+
+        // Tag counts of every group, as (tag, count) pairs, and of the pinned players of every team
+        int[][] groupTags = new int[groupCount][];
+        int[] pinnedTagCounts = new int[teamCount * quotaTags.size()];
+        int[] counts = new int[quotaTags.size()];
+        for (int g = 0; g < groupCount; g++) {
+            int distinct = 0;
+            for (int k = groupStart[g]; k < groupStart[g + 1]; k++) {
+                for (int q : tagsOf.getOrDefault(groupMembers[k], List.of())) {
+                    if (counts[q]++ == 0) {
+                        distinct++;
+                    }
+                }
+            }
+            groupTags[g] = new int[2 * distinct];
+            int team = pinnedTeam[groupMembers[groupStart[g]]];
+            for (int q = 0, n = 0; q < counts.length && n < distinct; q++) {
+                if (counts[q] == 0) {
+                    continue;
+                }
+                if (counts[q] > quotaMax[q]) {
+                    throw new IllegalArgumentException(counts[q] + " players tagged " + quotaTags.get(q)
+                            + " must play together, but the quota allows " + quotaMax[q] + " per team");
+                }
+                groupTags[g][2 * n] = q;
+                groupTags[g][2 * n + 1] = counts[q];
+                n++;
+                if (team >= 0 && (pinnedTagCounts[team * counts.length + q] += counts[q]) > quotaMax[q]) {
+                    throw new IllegalArgumentException("Team " + teamNames.get(team) + " has more pinned players tagged "
+                            + quotaTags.get(q) + " than its quota allows");
+                }
+                counts[q] = 0;
+            }
+        }
+        return new DrawConstraints(pinnedTeam, groupOf, groupStart, groupMembers, conflicts, quotaMin, quotaMax,
+                groupTags, pinnedTagCounts);
+    }
+
+    /**
+     * Map every player named by a constraint to its roster index, in one
+     * pass over the roster.
+     */
+    private static Map<String, Integer> indexNamed(List<Player> players, TeamMakerConfig rules) {
+        Set<String> named = new HashSet<>(rules.getPins().keySet());
+        rules.getTogether().forEach(named::addAll);
+        rules.getApart().forEach(named::addAll);
+        rules.getTags().values().forEach(named::addAll);
+        Map<String, Integer> index = new HashMap<>(named.size() * 2);
+        for (int i = 0; i < players.size(); i++) {
+            String name = players instanceof OffHeapRoster roster ? roster.name(i) : players.get(i).name();
+            if (named.contains(name) && index.putIfAbsent(name, i) != null) {
+                throw new IllegalArgumentException("Player " + name
+                        + " cannot be constrained because several players have that name");
+            }
+        }
+        if (index.size() < named.size()) {
+            for (String name : named) {
+                if (!index.containsKey(name)) {
+                    throw new IllegalArgumentException((rules.getPins().containsKey(name) ? "Pinned" : "Constrained")
+                            + " player " + name + " is not in the roster");
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Resolve pins, extending a pin on one member to its whole group.
+     */
+    private static int[] resolvePins(List<Player> players, List<String> teamNames, TeamMakerConfig rules,
+            Map<String, Integer> index, int[] groupOf, int[] groupStart, int[] groupMembers) {
+        int[] pinnedTeam = new int[players.size()];
+        Arrays.fill(pinnedTeam, -1);
+        if (rules.getPins().isEmpty()) {
+            return pinnedTeam;
+        }
+        Map<String, Integer> teams = new HashMap<>(teamNames.size() * 2);
+        for (int t = teamNames.size() - 1; t >= 0; t--) {
+            teams.put(teamNames.get(t), t);
+        }
+        for (Map.Entry<String, String> pin : rules.getPins().entrySet()) {
+            Integer team = teams.get(pin.getValue());
+            if (team == null) {
+                throw new IllegalArgumentException("Player " + pin.getKey() + " is pinned to unknown team "
+                        + pin.getValue());
+            }
+            int player = index.get(pin.getKey());
+            int group = groupOf[player];
+            int from = group < 0 ? 0 : groupStart[group];
+            int to = group < 0 ? 1 : groupStart[group + 1];
+            for (int k = from; k < to; k++) {
+                int member = group < 0 ? player : groupMembers[k];
+                if (pinnedTeam[member] >= 0 && pinnedTeam[member] != team) {
+                    throw new IllegalArgumentException("Player " + pin.getKey() + " is pinned to " + pin.getValue()
+                            + " but must play with a player pinned to " + teamNames.get(pinnedTeam[member]));
+                }
+                pinnedTeam[member] = team;
+            }
+        }
+        return pinnedTeam;
+    }
+
+    private static void checkPinnedGroups(int[] pinnedTeam, int[] groupStart, int[] groupMembers, int[][] conflicts,
+            List<Player> players, List<String> teamNames, int playersPerTeam) {
+        int[] pinnedCount = new int[teamNames.size()];
+        for (int team : pinnedTeam) {
+            if (team >= 0 && ++pinnedCount[team] > playersPerTeam) {
+                throw new IllegalArgumentException("Team " + teamNames.get(team) + " has more pinned players than places");
+            }
+        }
+        for (int g = 0; g < conflicts.length; g++) {
+            int team = pinnedTeam[groupMembers[groupStart[g]]];
+            for (int other : conflicts[g]) {
+                if (team >= 0 && pinnedTeam[groupMembers[groupStart[other]]] == team) {
+                    int player = groupMembers[groupStart[g]];
+                    throw new IllegalArgumentException("Player "
+                            + (players instanceof OffHeapRoster roster ? roster.name(player) : players.get(player).name())
+                            + " must be apart from another player pinned to " + teamNames.get(team));
+                }
+            }
+        }
+    }
+
+    private static void checkSize(List<String> names, String kind) {
+        if (names == null || names.size() < 2) {
+            throw new IllegalArgumentException("Every '" + kind + "' constraint must name at least two players");
+        }
+    }
+
+    private static int find(int[] parent, int player) {
+        int root = player;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[player] != root) {
+            int next = parent[player];
+            parent[player] = root;
+            player = next;
+        }
+        return root;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        if (parent[a] < 0) {
+            parent[a] = a;
+        }
+        if (parent[b] < 0) {
+            parent[b] = b;
+        }
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    /**
+     * @return true if no player is constrained
+     */
+    boolean isEmpty() {
+        return pinnedTeam == null;
+    }
+
+    /**
+     * @param player roster index of a player
+     * @return the team the player is pinned to, or -1 if the player is free
+     */
+    int pinnedTeam(int player) {
+        return pinnedTeam == null ? -1 : pinnedTeam[player];
+    }
+
+    /**
+     * @param player roster index of a player
+     * @return the group of a player named by a pairing constraint, or -1
+     */
+    int groupOf(int player) {
+        return groupOf == null ? -1 : groupOf[player];
+    }
+
+    /**
+     * @return number of groups formed by the pairing constraints
+     */
+    int groupCount() {
+        return groupStart == null ? 0 : groupStart.length - 1;
+    }
+
+    int groupSize(int group) {
+        return groupStart[group + 1] - groupStart[group];
+    }
+
+    /**
+     * @param group the group
+     * @param k     position within the group
+     * @return roster index of the k-th member of the group
+     */
+    int groupMember(int group, int k) {
+        return groupMembers[groupStart[group] + k];
+    }
+
+    /**
+     * @param group the group
+     * @return the groups that may not share a team with it
+     */
+    int[] conflicts(int group) {
+        return conflicts[group];
+    }
+
+    /**
+     * @return number of tags with a per-team quota
+     */
+    int quotaCount() {
+        return quotaMin == null ? 0 : quotaMin.length;
+    }
+
+    int quotaMin(int tag) {
+        return quotaMin[tag];
+    }
+
+    int quotaMax(int tag) {
+        return quotaMax[tag];
+    }
+
+    /**
+     * @param group the group
+     * @return the quota tags of the group's players as consecutive
+     *         (tag, number of players) pairs
+     */
+    int[] groupTags(int group) {
+        return groupTags[group];
+    }
+
+    /**
+     * @param team the team
+     * @param tag  the quota tag
+     * @return number of players with the tag pinned to the team
+     */
+    int pinnedTagCount(int team, int tag) {
+        return pinnedTagCounts[team * quotaMin.length + tag];
+    }
+}
@@ -0,0 +1,594 @@
+package io.github.brunoborges.teammaker;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.RandomAccess;
+
+/**
+ * Reusable engine context for repeated draws of the same roster.
+ * <p>
+ * The roster is compiled once into its {@link CanonicalRoster canonical form};
+ * every {@link #draw()} then works on preallocated primitive arrays and a
+ * single {@link Random}, so the steady state produces no garbage. Teams are
+ * materialized on demand by {@link #getTeams()}, recycling the same
+ * {@link Team} instances on every draw.
+ * <p>
+ * Players pinned to a team by the configuration are placed once, when the
+ * context is built. Every draw starts from the pinned team strengths and only
+ * fills the remaining places, so pins never cost extra draws. Groups of
+ * players who must play together are then placed as units, largest first,
+ * each on the weakest team with room that holds none of the players it must
+ * be apart from. Every team keeps a bitset of the groups it excludes, so that
+ * check is a single bit test. Players with a quota tag are placed the same
+ * way, preferring teams still short of their tag's minimum; per-team tag
+ * counters keep the quota checks constant-time. Only then are the free
+ * players drawn.
+ * <p>
+ * A context is not thread-safe. Teams returned by {@link #getTeams()} are
+ * only valid until the next draw; use {@link #toResult()} for a result that
+ * can be kept or shared.
+ */
+public final class DrawContext {
+
+	/**
+	 * Times the groups are placed in a new random order before a draw gives up
+	 * on finding room for all of them.
+	 */
+	static final int MAX_GROUP_ATTEMPTS = 100;
+
+	private final CanonicalRoster roster;
+	private final FixedPointScale scale;
+	private final int teamCount;
+	private final int playersPerTeam;
+	private final Random random;
+	private final long averageStrength;
+
+	private final long[] classScores;
+	private final int[] pool;
+	private final int[] classStart;
+	private final int[] remaining;
+	private final int[] teamOrder;
+	private final long[] teamSums;
+	private final int[] teamSizes;
+	private final int[] teamOf;
+	private final long[] pinnedSums;
+	private final int[] pinnedSizes;
+	private final int freeCount;
+
+	private final DrawConstraints constraints;
+	private final int[] groupOrder;
+	private final long[] groupSums;
+	private final int conflictWords;
+	private final long[] pinnedExclusions;
+	private final long[] exclusions;
+	private final int quotaCount;
+	private final int[] tagCounts;
+
+	private final Team[] teams;
+	private final List<Team> teamView = new TeamView();
+	private boolean teamsCurrent;
+	private boolean drawn;
+	private boolean balanced;
+	private long minimumStrength;
+	private long maximumStrength;
+
+	/**
+	 * Creates a context for the players and team names of a configuration.
+	 *
+	 * @param config the team maker configuration
+	 * @throws IllegalArgumentException if the configuration is invalid
+	 */
+	public DrawContext(TeamMakerConfig config) {
+		this(compile(config), config.getTeamNames(), config.constraints(), new Random());
+	}
+
+	/**
+	 * Creates a context for a list of players split into teams of a given size,
+	 * using alphabet-based team names.
+	 *
+	 * @param players        the players to draw
+	 * @param playersPerTeam the number of players in each team
+	 * @throws IllegalArgumentException if the players cannot be split evenly
+	 */
+	public DrawContext(List<Player> players, int playersPerTeam) {
+		this(compile(players, playersPerTeam), null, new Random());
+	}
+
+	DrawContext(CanonicalRoster roster, List<String> teamNames, Random random) {
+		this(roster, teamNames, DrawConstraints.NONE, random);
+	}
+
+	DrawContext(CanonicalRoster roster, List<String> teamNames, DrawConstraints constraints, Random random) {
+		this.roster = roster;
+		this.scale = roster.scale();
+		this.teamCount = roster.teamCount();
+		this.playersPerTeam = roster.playersPerTeam();
+		this.random = random;
+
+		int size = roster.size();
+		int classes = roster.classCount();
+		this.classScores = new long[classes];
+		this.pool = new int[size];
+		this.classStart = new int[classes + 1];
+		this.remaining = new int[classes];
+		this.teamOrder = new int[teamCount];
+		this.teamSums = new long[teamCount];
+		this.teamSizes = new int[teamCount];
+		this.teamOf = new int[size];
+		this.pinnedSums = new long[teamCount];
+		this.pinnedSizes = new int[teamCount];
+		this.constraints = constraints;
+		int groups = constraints.groupCount();
+		this.groupSums = new long[groups];
+		this.conflictWords = (groups + Long.SIZE - 1) / Long.SIZE;
+		this.pinnedExclusions = new long[teamCount * conflictWords];
+		this.exclusions = new long[teamCount * conflictWords];
+		this.quotaCount = constraints.quotaCount();
+		this.tagCounts = new int[teamCount * quotaCount];
+		long total = 0;
+		int k = 0;
+		for (int c = 0; c < classes; c++) {
+			classStart[c] = k;
+			classScores[c] = roster.classFixedScore(c);
+			for (int m = 0; m < roster.classSize(c); m++) {
+				int player = roster.member(c, m);
+				int pinned = constraints.pinnedTeam(player);
+				int group = constraints.groupOf(player);
+				if (pinned < 0 && group >= 0) {
+					// Grouped players are placed with their group on every draw
+					groupSums[group] += classScores[c];
+				} else if (pinned < 0) {
+					pool[k++] = player;
+				} else {
+					// Pinned players never enter the pool; their team is fixed once
+					teamOf[player] = pinned;
+					pinnedSums[pinned] += classScores[c];
+					pinnedSizes[pinned]++;
+				}
+			}
+			total += roster.classFixedScore(c) * roster.classSize(c);
+		}
+		classStart[classes] = k;
+		this.freeCount = k;
+		this.averageStrength = size == 0 ? 0 : total / size;
+
+		int unpinned = 0;
+		for (int g = 0; g < groups; g++) {
+			int team = constraints.pinnedTeam(constraints.groupMember(g, 0));
+			if (team < 0) {
+				unpinned++;
+			} else {
+				exclude(pinnedExclusions, team, g);
+			}
+		}
+		this.groupOrder = new int[unpinned];
+		for (int g = 0, n = 0; g < groups; g++) {
+			if (constraints.pinnedTeam(constraints.groupMember(g, 0)) < 0) {
+				groupOrder[n++] = g;
+			}
+		}
+		sortBySizeDescending(groupOrder, constraints);
+
+		this.teams = new Team[teamCount];
+		for (int t = 0; t < teamCount; t++) {
+			teamOrder[t] = t;
+			teams[t] = new Team(TeamMaker.teamName(teamNames, t), playersPerTeam, scale);
+		}
+	}
+
+	private static CanonicalRoster compile(TeamMakerConfig config) {
+		config.validate();
+		return CanonicalRoster.of(config.getPlayers(), config.getTeamNames().size(), config.fixedPointScale());
+	}
+
+	private static CanonicalRoster compile(List<Player> players, int playersPerTeam) {
+		if (playersPerTeam < 1 || players.isEmpty() || players.size() % playersPerTeam != 0) {
+			throw new IllegalArgumentException(
+				String.format("Number of players (%d) must be evenly divisible by players per team (%d)",
+							players.size(), playersPerTeam));
+		}
+		return CanonicalRoster.of(players, players.size() / playersPerTeam);
+	}
+
+	/**
+	 * Draw the roster into teams once, reusing all working state.
+	 *
+	 * @return true if the drawn teams are balanced
+	 */
+	public boolean draw() {
+		for (int c = 0; c < remaining.length; c++) {
+			remaining[c] = classStart[c + 1] - classStart[c];
+		}
+		for (int attempt = 1; ; attempt++) {
+			for (int t = 0; t < teamCount; t++) {
+				teamSums[t] = pinnedSums[t];
+				teamSizes[t] = pinnedSizes[t];
+			}
+			shuffleTeamOrder();
+			if (groupOrder.length == 0 || placeGroups()) {
+				break;
+			}
+			if (attempt == MAX_GROUP_ATTEMPTS) {
+				throw new IllegalStateException("Could not place every constrained player within the team sizes, "
+						+ "the together and apart rules and the tag quotas");
+			}
+		}
+
+		int unassigned = freeCount;
+		while (unassigned > 0) {
+			for (int k = 0; k < teamCount && unassigned > 0; k++) {
+				int team = teamOrder[k];
+				if (teamSizes[team] < playersPerTeam) {
+					assign(pickPlayer(teamSums[team]), team);
+					unassigned--;
+				}
+			}
+		}
+
+		long min = Long.MAX_VALUE;
+		long max = Long.MIN_VALUE;
+		for (int t = 0; t < teamCount; t++) {
+			min = Math.min(min, teamSums[t]);
+			max = Math.max(max, teamSums[t]);
+		}
+		minimumStrength = min;
+		maximumStrength = max;
+		balanced = TeamMaker.isBalanced(min, max);
+		drawn = true;
+		teamsCurrent = false;
+		return balanced;
+	}
+
+	/**
+	 * Draw repeatedly until the teams are balanced.
+	 *
+	 * @param maxAttempts maximum number of draws
+	 * @return true if a balanced draw was found within the attempts
+	 */
+	public boolean drawUntilBalanced(int maxAttempts) {
+		for (int attempt = 0; attempt < maxAttempts; attempt++) {
+			if (draw()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean isBalanced() {
+		checkDrawn();
+		return balanced;
+	}
+
+	public double getMinimumStrength() {
+		checkDrawn();
+		return scale.toDouble(minimumStrength);
+	}
+
+	public double getMaximumStrength() {
+		checkDrawn();
+		return scale.toDouble(maximumStrength);
+	}
+
+	public int getTeamCount() {
+		return teamCount;
+	}
+
+	public CanonicalRoster getRoster() {
+		return roster;
+	}
+
+	/**
+	 * @param playerIndex roster index of a player
+	 * @return index of the team the player was drawn into
+	 */
+	public int teamOf(int playerIndex) {
+		checkDrawn();
+		return teamOf[playerIndex];
+	}
+
+	/**
+	 * Get the teams of the last draw. The returned list and teams are reused by
+	 * the next draw, so they must not be kept beyond it.
+	 *
+	 * @return the teams of the last draw, in draw order
+	 */
+	public List<Team> getTeams() {
+		checkDrawn();
+		if (!teamsCurrent) {
+			for (Team team : teams) {
+				team.recycle();
+			}
+			for (int i = 0; i < teamOf.length; i++) {
+				teams[teamOf[i]].add(roster.player(i));
+			}
+			for (Team team : teams) {
+				team.seal();
+			}
+			teamsCurrent = true;
+		}
+		return teamView;
+	}
+
+	/**
+	 * Copy the last draw into a standalone result that stays valid after
+	 * further draws. Only the compact assignment is copied; teams are
+	 * materialized lazily by the result.
+	 *
+	 * @return TeamMakerResult containing the teams and balance information
+	 */
+	public TeamMakerResult toResult() {
+		checkDrawn();
+		return new TeamMakerResult(toCompactAssignment(), roster.players(), balanced, toStatistics());
+	}
+
+	/**
+	 * Copy the last draw into its compact form. Team indices follow draw order,
+	 * the same order as {@link #getTeams()}.
+	 *
+	 * @return the compact assignment
+	 */
+	public CompactAssignment toCompactAssignment() {
+		checkDrawn();
+		int[] position = new int[teamCount];
+		double[] sums = new double[teamCount];
+		List<String> names = new ArrayList<>(teamCount);
+		for (int k = 0; k < teamCount; k++) {
+			int t = teamOrder[k];
+			position[t] = k;
+			sums[k] = scale.toDouble(teamSums[t]);
+			names.add(teams[t].getName());
+		}
+		int[] assignment = new int[teamOf.length];
+		for (int i = 0; i < teamOf.length; i++) {
+			assignment[i] = position[teamOf[i]];
+		}
+		return new CompactAssignment(assignment, sums, names);
+	}
+
+	private TeamStatistics toStatistics() {
+		long[] sums = new long[teamCount];
+		for (int k = 0; k < teamCount; k++) {
+			sums[k] = teamSums[teamOrder[k]];
+		}
+		return TeamStatistics.of(sums, scale);
+	}
+
+	private void checkDrawn() {
+		if (!drawn) {
+			throw new IllegalStateException("No draw has been made yet");
+		}
+	}
+
+	private void shuffleTeamOrder() {
+		for (int i = teamCount - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = teamOrder[i];
+			teamOrder[i] = teamOrder[j];
+			teamOrder[j] = tmp;
+		}
+	}
+
+	/**
+	 * Place every unpinned group on the weakest team that has room for it,
+	 * does not exclude it and stays within the quotas of its tags. Teams still
+	 * short of the minimum of one of the group's tags come first. Groups of
+	 * the same size are placed in random order.
+	 *
+	 * @return false if some group found no team or a minimum was not met
+	 */
+	private boolean placeGroups() {
+		System.arraycopy(pinnedExclusions, 0, exclusions, 0, exclusions.length);
+		for (int t = 0; t < teamCount; t++) {
+			for (int q = 0; q < quotaCount; q++) {
+				tagCounts[t * quotaCount + q] = constraints.pinnedTagCount(t, q);
+			}
+		}
+		for (int from = 0; from < groupOrder.length;) {
+			int size = constraints.groupSize(groupOrder[from]);
+			int to = from + 1;
+			while (to < groupOrder.length && constraints.groupSize(groupOrder[to]) == size) {
+				to++;
+			}
+			shuffle(groupOrder, from, to);
+			from = to;
+		}
+		for (int group : groupOrder) {
+			int size = constraints.groupSize(group);
+			int[] tags = constraints.groupTags(group);
+			int best = -1;
+			boolean bestNeeded = false;
+			for (int k = 0; k < teamCount; k++) {
+				int team = teamOrder[k];
+				if (teamSizes[team] + size > playersPerTeam || isExcluded(team, group) || !withinQuotas(team, tags)) {
+					continue;
+				}
+				boolean needed = belowMinimum(team, tags);
+				if (best < 0 || needed && !bestNeeded || needed == bestNeeded && teamSums[team] < teamSums[best]) {
+					best = team;
+					bestNeeded = needed;
+				}
+			}
+			if (best < 0) {
+				return false;
+			}
+			for (int m = 0; m < size; m++) {
+				teamOf[constraints.groupMember(group, m)] = best;
+			}
+			teamSums[best] += groupSums[group];
+			teamSizes[best] += size;
+			exclude(exclusions, best, group);
+			for (int i = 0; i < tags.length; i += 2) {
+				tagCounts[best * quotaCount + tags[i]] += tags[i + 1];
+			}
+		}
+		for (int t = 0; t < teamCount; t++) {
+			for (int q = 0; q < quotaCount; q++) {
+				if (tagCounts[t * quotaCount + q] < constraints.quotaMin(q)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param tags consecutive (tag, number of players) pairs
+	 */
+	private boolean withinQuotas(int team, int[] tags) {
+		for (int i = 0; i < tags.length; i += 2) {
+			if (tagCounts[team * quotaCount + tags[i]] + tags[i + 1] > constraints.quotaMax(tags[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param tags consecutive (tag, number of players) pairs
+	 */
+	private boolean belowMinimum(int team, int[] tags) {
+		for (int i = 0; i < tags.length; i += 2) {
+			if (tagCounts[team * quotaCount + tags[i]] < constraints.quotaMin(tags[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isExcluded(int team, int group) {
+		return (exclusions[team * conflictWords + (group >>> 6)] & (1L << group)) != 0;
+	}
+
+	/**
+	 * Record on a team that the groups a group must be apart from may no
+	 * longer join it.
+	 */
+	private void exclude(long[] bits, int team, int group) {
+		for (int other : constraints.conflicts(group)) {
+			bits[team * conflictWords + (other >>> 6)] |= 1L << other;
+		}
+	}
+
+	/**
+	 * Counting sort of groups by size, largest first. Sizes are bounded by
+	 * the team size.
+	 */
+	private void sortBySizeDescending(int[] groups, DrawConstraints constraints) {
+		int[] start = new int[playersPerTeam + 2];
+		for (int group : groups) {
+			start[playersPerTeam - constraints.groupSize(group) + 1]++;
+		}
+		for (int size = 0; size <= playersPerTeam; size++) {
+			start[size + 1] += start[size];
+		}
+		int[] sorted = new int[groups.length];
+		for (int group : groups) {
+			sorted[start[playersPerTeam - constraints.groupSize(group)]++] = group;
+		}
+		System.arraycopy(sorted, 0, groups, 0, groups.length);
+	}
+
+	private void shuffle(int[] values, int from, int to) {
+		for (int i = to - 1; i > from; i--) {
+			int j = from + random.nextInt(i - from + 1);
+			int tmp = values[i];
+			values[i] = values[j];
+			values[j] = tmp;
+		}
+	}
+
+	private void assign(int scoreClass, int team) {
+		int last = classStart[scoreClass] + remaining[scoreClass] - 1;
+		int slot = classStart[scoreClass] + random.nextInt(remaining[scoreClass]);
+		int player = pool[slot];
+		pool[slot] = pool[last];
+		pool[last] = player;
+		remaining[scoreClass]--;
+
+		teamOf[player] = team;
+		teamSums[team] += classScores[scoreClass];
+		teamSizes[team]++;
+	}
+
+	/**
+	 * Pick the score class for the next player of a team. Weaker teams lean
+	 * towards stronger players, and the remaining player closest to the
+	 * randomly chosen target strength is taken.
+	 */
+	private int pickPlayer(long teamStrength) {
+		double weight = random.nextDouble();
+
+		if (teamStrength < averageStrength) {
+			weight += random.nextDouble();
+		} else {
+			weight -= random.nextDouble();
+		}
+
+		double strength = 0;
+		if (weight >= 0 && weight < 0.10) {
+			// 10%
+			strength = 1;
+		} else if (weight >= 0.10 && weight < 0.25) {
+			// 15%
+			strength = 2;
+		} else if (weight >= 0.25 && weight < 0.65) {
+			// 40%
+			strength = 3;
+		} else if (weight >= 0.65 && weight < 0.95) {
+			// 30%
+			strength = 4;
+		} else if (weight >= 0.95) {
+			// 5%
+			strength = 5;
+		}
+
+		return closestClass(scale.toFixed(strength));
+	}
+
+	private int closestClass(long target) {
+		int classes = classScores.length;
+		int above = Arrays.binarySearch(classScores, target);
+		if (above < 0) {
+			above = -above - 1;
+		}
+		int below = above - 1;
+		while (above < classes && remaining[above] == 0) {
+			above++;
+		}
+		while (below >= 0 && remaining[below] == 0) {
+			below--;
+		}
+
+		if (below < 0) {
+			return above;
+		}
+		if (above >= classes) {
+			return below;
+		}
+		long belowDistance = target - classScores[below];
+		long aboveDistance = classScores[above] - target;
+		if (belowDistance == aboveDistance) {
+			return random.nextBoolean() ? below : above;
+		}
+		return belowDistance < aboveDistance ? below : above;
+	}
+
+	/**
+	 * Allocation-free list view of the recycled teams in draw order.
+	 */
+	private final class TeamView extends AbstractList<Team> implements RandomAccess {
+
+		@Override
+		public Team get(int index) {
+			return teams[teamOrder[index]];
+		}
+
+		@Override
+		public int size() {
+			return teamCount;
+		}
+	}
+}
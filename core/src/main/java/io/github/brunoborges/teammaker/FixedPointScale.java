@@ -0,0 +1,97 @@
+package io.github.brunoborges.teammaker;
+
+/**
+ * Fixed-point representation of scores.
+ * <p>
+ * A score is stored as a {@code long} holding the score multiplied by
+ * 10<sup>precision</sup>. Sums of fixed-point scores are exact, so team
+ * strengths can be compared for equality and balanced with integer-only
+ * arithmetic. Scores are converted back to {@code double} at the API
+ * boundary, e.g. by {@link Team#getScore()}, so reported strengths are
+ * rounded to the scale's precision.
+ */
+public final class FixedPointScale {
+
+    /**
+     * Number of decimal places kept when no score scale specifies one.
+     */
+    public static final int DEFAULT_PRECISION = 3;
+
+    /**
+     * Largest supported number of decimal places.
+     */
+    public static final int MAX_PRECISION = 9;
+
+    public static final FixedPointScale DEFAULT = new FixedPointScale(DEFAULT_PRECISION);
+
+    private static final FixedPointScale[] SCALES = new FixedPointScale[MAX_PRECISION + 1];
+
+    static {
+        for (int precision = 0; precision <= MAX_PRECISION; precision++) {
+            SCALES[precision] = precision == DEFAULT_PRECISION ? DEFAULT : new FixedPointScale(precision);
+        }
+    }
+
+    private final int precision;
+    private final long factor;
+
+    private FixedPointScale(int precision) {
+        this.precision = precision;
+        long f = 1;
+        for (int i = 0; i < precision; i++) {
+            f *= 10;
+        }
+        this.factor = f;
+    }
+
+    /**
+     * Get the scale for a number of decimal places.
+     *
+     * @param precision number of decimal places, between 0 and {@link #MAX_PRECISION}
+     * @return the shared scale instance
+     * @throws IllegalArgumentException if the precision is out of range
+     */
+    public static FixedPointScale of(int precision) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(
+                String.format("Score precision must be between 0 and %d, but was %d", MAX_PRECISION, precision));
+        }
+        return SCALES[precision];
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * @return 10<sup>precision</sup>
+     */
+    public long factor() {
+        return factor;
+    }
+
+    /**
+     * Convert a score to fixed point, rounding to the nearest representable value.
+     *
+     * @param score the score
+     * @return the score multiplied by {@link #factor()}
+     */
+    public long toFixed(double score) {
+        return Math.round(score * factor);
+    }
+
+    /**
+     * Convert a fixed-point value back to a score.
+     *
+     * @param fixed the fixed-point value
+     * @return the score
+     */
+    public double toDouble(long fixed) {
+        return (double) fixed / factor;
+    }
+
+    @Override
+    public String toString() {
+        return "FixedPointScale[precision=" + precision + "]";
+    }
+}
@@ -1,17 +1,29 @@
 package io.github.brunoborges.teammaker;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Utility class for loading TeamMaker configuration from JSON files.
+ * <p>
+ * Reading and writing go through Jackson's streaming parser and generator
+ * with hand-written field mapping, so no reflection or data binding is
+ * needed and the native image carries no reflection metadata for the
+ * configuration types.
  */
 public class JsonConfigLoader {
     
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final StreamingConfigLoader streamingLoader = new StreamingConfigLoader();
+    private static final StreamingConfigLoader offHeapLoader = new StreamingConfigLoader(
+            StreamingConfigLoader.DEFAULT_MAX_PLAYERS, StreamingConfigLoader.DEFAULT_MAX_TEAMS,
+            StreamingConfigLoader.DEFAULT_MAX_NAME_LENGTH, StreamingConfigLoader.DEFAULT_MAX_DOCUMENT_BYTES, true);
     
     /**
      * Load configuration from a JSON file.
@@ -25,15 +37,34 @@ public class JsonConfigLoader {
     }
     
     /**
-     * Load configuration from a JSON file.
+     * Load configuration from a JSON file. Files in the binary format of
+     * {@link BinaryConfigLoader} are recognized by their magic bytes and mapped
+     * into memory instead.
      * 
-     * @param filePath path to the JSON configuration file
+     * @param filePath path to the JSON or binary configuration file
      * @return TeamMakerConfig loaded from the file
      * @throws IOException if the file cannot be read or parsed
      */
     public static TeamMakerConfig loadFromFile(Path filePath) throws IOException {
+        return loadFromFile(filePath, false);
+    }
+    
+    /**
+     * Load configuration from a JSON or binary file, choosing where the
+     * players of a JSON file are stored.
+     * 
+     * @param filePath path to the JSON or binary configuration file
+     * @param offHeap true to store the players of a JSON file in an
+     *                {@link OffHeapRoster}, for rosters of many thousands of players
+     * @return TeamMakerConfig loaded from the file
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public static TeamMakerConfig loadFromFile(Path filePath, boolean offHeap) throws IOException {
+        if (BinaryConfigLoader.isBinary(filePath)) {
+            return BinaryConfigLoader.loadFromFile(filePath);
+        }
         try (InputStream inputStream = Files.newInputStream(filePath)) {
-            return loadFromInputStream(inputStream);
+            return loadFromInputStream(inputStream, offHeap);
         }
     }
     
@@ -55,15 +86,49 @@ public class JsonConfigLoader {
     
     /**
      * Load configuration from an InputStream.
+     * <p>
+     * The document is read incrementally by a {@link StreamingConfigLoader} with
+     * the default size limits; players are kept in an on-heap list.
      * 
      * @param inputStream the input stream containing JSON data
      * @return TeamMakerConfig loaded from the stream
      * @throws IOException if the stream cannot be read or parsed
+     * @throws ConfigValidationException if the configuration is invalid, listing every error found
      */
     public static TeamMakerConfig loadFromInputStream(InputStream inputStream) throws IOException {
-        TeamMakerConfig config = objectMapper.readValue(inputStream, TeamMakerConfig.class);
-        validateConfig(config);
-        return config;
+        return loadFromInputStream(inputStream, false);
+    }
+    
+    /**
+     * Load configuration from an InputStream, choosing where the players are
+     * stored.
+     * 
+     * @param inputStream the input stream containing JSON data
+     * @param offHeap true to store the players in an {@link OffHeapRoster}, for
+     *                rosters of many thousands of players
+     * @return TeamMakerConfig loaded from the stream
+     * @throws IOException if the stream cannot be read or parsed
+     * @throws ConfigValidationException if the configuration is invalid, listing every error found
+     */
+    public static TeamMakerConfig loadFromInputStream(InputStream inputStream, boolean offHeap) throws IOException {
+        return (offHeap ? offHeapLoader : streamingLoader).load(inputStream);
+    }
+    
+    /**
+     * Read a JSON configuration file without checking that it can be drawn,
+     * so an editor can reopen work in progress it saved with
+     * {@link #saveToFile(TeamMakerConfig, Path)}.
+     * 
+     * @param filePath path to the JSON configuration file
+     * @return TeamMakerConfig read from the file
+     * @throws IOException if the file cannot be read or parsed
+     * @throws ConfigValidationException if a field is malformed
+     * @see StreamingConfigLoader#parse(InputStream)
+     */
+    public static TeamMakerConfig parseFile(Path filePath) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(filePath)) {
+            return streamingLoader.parse(inputStream);
+        }
     }
     
     /**
@@ -85,17 +150,110 @@ public class JsonConfigLoader {
      * @throws IOException if the file cannot be written
      */
     public static void saveToFile(TeamMakerConfig config, Path filePath) throws IOException {
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(filePath.toFile(), config);
+        try (OutputStream out = Files.newOutputStream(filePath)) {
+            writeTo(config, out);
+        }
     }
     
     /**
-     * Validate the loaded configuration.
+     * Write a configuration as pretty-printed JSON in the format read by
+     * {@link #loadFromInputStream(InputStream)}. The stream is flushed but not
+     * closed.
      * 
-     * @param config the configuration to validate
-     * @throws IllegalArgumentException if the configuration is invalid
+     * @param config the configuration to write
+     * @param out the destination stream
+     * @throws IOException if writing fails
      */
-    private static void validateConfig(TeamMakerConfig config) throws IllegalArgumentException {
-        // Use the comprehensive validation method from TeamMakerConfig
-        config.validate();
+    public static void writeTo(TeamMakerConfig config, OutputStream out) throws IOException {
+        try (JsonGenerator generator = JsonResultWriter.JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("players");
+            List<Player> players = config.getPlayers();
+            if (players instanceof OffHeapRoster roster) {
+                // Read the columns directly instead of materializing each player
+                for (int i = 0; i < roster.size(); i++) {
+                    writePlayer(generator, roster.name(i), roster.score(i));
+                }
+            } else if (players != null) {
+                for (Player player : players) {
+                    writePlayer(generator, player.name(), player.score());
+                }
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("teamNames");
+            if (config.getTeamNames() != null) {
+                for (String teamName : config.getTeamNames()) {
+                    generator.writeString(teamName);
+                }
+            }
+            generator.writeEndArray();
+            TeamMakerConfig.ScoreScale scoreScale = config.getScoreScale();
+            if (scoreScale != null) {
+                generator.writeObjectFieldStart("scoreScale");
+                generator.writeNumberField("min", scoreScale.getMin());
+                generator.writeNumberField("max", scoreScale.getMax());
+                generator.writeNumberField("precision", scoreScale.getPrecision());
+                generator.writeEndObject();
+            }
+            if (!config.getPins().isEmpty()) {
+                generator.writeObjectFieldStart("pins");
+                for (Map.Entry<String, String> pin : config.getPins().entrySet()) {
+                    generator.writeStringField(pin.getKey(), pin.getValue());
+                }
+                generator.writeEndObject();
+            }
+            writeGroups(generator, "together", config.getTogether());
+            writeGroups(generator, "apart", config.getApart());
+            if (!config.getTags().isEmpty()) {
+                generator.writeObjectFieldStart("tags");
+                for (Map.Entry<String, List<String>> tag : config.getTags().entrySet()) {
+                    generator.writeArrayFieldStart(tag.getKey());
+                    for (String name : tag.getValue()) {
+                        generator.writeString(name);
+                    }
+                    generator.writeEndArray();
+                }
+                generator.writeEndObject();
+            }
+            if (!config.getQuotas().isEmpty()) {
+                generator.writeObjectFieldStart("quotas");
+                for (Map.Entry<String, TeamMakerConfig.Quota> quota : config.getQuotas().entrySet()) {
+                    generator.writeObjectFieldStart(quota.getKey());
+                    generator.writeNumberField("min", quota.getValue().getMin());
+                    if (quota.getValue().getMax() != Integer.MAX_VALUE) {
+                        generator.writeNumberField("max", quota.getValue().getMax());
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        out.flush();
     }
-}
\ No newline at end of file
+    
+    private static void writeGroups(JsonGenerator generator, String field, List<List<String>> groups)
+            throws IOException {
+        if (groups.isEmpty()) {
+            return;
+        }
+        generator.writeArrayFieldStart(field);
+        for (List<String> group : groups) {
+            generator.writeStartArray();
+            for (String name : group) {
+                generator.writeString(name);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+    }
+    
+    private static void writePlayer(JsonGenerator generator, String name, double score) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", name);
+        generator.writeNumberField("score", score);
+        generator.writeEndObject();
+    }
+
+}
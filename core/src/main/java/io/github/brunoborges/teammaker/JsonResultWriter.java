@@ -0,0 +1,82 @@
+package io.github.brunoborges.teammaker;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a result as a single JSON document:
+ * <pre>
+ * {"balanced":true,"minimumStrength":7.0,"maximumStrength":8.0,
+ *  "teams":[{"name":"Team A","score":7.0,"players":[{"name":"Alex","score":3.0}, ...]}, ...]}
+ * </pre>
+ * The document is produced with a streaming {@link JsonGenerator}, no tree
+ * or data binding is involved.
+ */
+public class JsonResultWriter implements ResultWriter {
+
+    static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    @Override
+    public void write(TeamMakerResult result, OutputStream out) throws IOException {
+        try (JsonGenerator generator = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            writeFields(generator, result);
+            generator.writeEndObject();
+        }
+        out.flush();
+    }
+
+    /**
+     * Write the fields of a result into an object that is already open, so
+     * callers can add fields of their own.
+     *
+     * @param generator the generator, positioned inside an object
+     * @param result    the result to write
+     * @throws IOException if writing fails
+     */
+    public static void writeFields(JsonGenerator generator, TeamMakerResult result) throws IOException {
+        generator.writeBooleanField("balanced", result.isBalanced());
+        generator.writeNumberField("minimumStrength", result.getMinimumStrength());
+        generator.writeNumberField("maximumStrength", result.getMaximumStrength());
+        generator.writeArrayFieldStart("teams");
+        for (Team team : result.getTeams()) {
+            writeTeam(generator, team);
+        }
+        generator.writeEndArray();
+    }
+
+    static void writeTeam(JsonGenerator generator, Team team) throws IOException {
+        generator.writeStartObject();
+        writeTeamFields(generator, team);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the name, score and players of a team into an object that is
+     * already open.
+     *
+     * @param generator the generator, positioned inside an object
+     * @param team      the team to write
+     * @throws IOException if writing fails
+     */
+    static void writeTeamFields(JsonGenerator generator, Team team) throws IOException {
+        FixedPointScale scale = team.getScale();
+        generator.writeStringField("name", team.getName());
+        generator.writeNumberField("score", team.getScore());
+        generator.writeArrayFieldStart("players");
+        for (Player player : team.getPlayers()) {
+            generator.writeStartObject();
+            generator.writeStringField("name", player.name());
+            // Rounded to the score precision like the team score and the CSV output
+            generator.writeNumberField("score", scale.toDouble(scale.toFixed(player.score())));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.brunoborges.teammaker;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a result as newline-delimited JSON: a summary line followed by one
+ * line per team, so consumers can process teams as they arrive.
+ * <pre>
+ * {"type":"summary","teams":10,"balanced":true,"minimumStrength":5.0,"maximumStrength":7.0}
+ * {"type":"team","team":1,"name":"Team A","score":6.0,"players":[{"name":"Alex","score":3.0}, ...]}
+ * </pre>
+ */
+public class NdjsonResultWriter implements ResultWriter {
+
+    private static final JsonFactory NDJSON = new JsonFactoryBuilder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .rootValueSeparator("\n")
+            .build();
+
+    @Override
+    public void write(TeamMakerResult result, OutputStream out) throws IOException {
+        try (JsonGenerator generator = NDJSON.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("type", "summary");
+            generator.writeNumberField("teams", result.getTeams().size());
+            generator.writeBooleanField("balanced", result.isBalanced());
+            generator.writeNumberField("minimumStrength", result.getMinimumStrength());
+            generator.writeNumberField("maximumStrength", result.getMaximumStrength());
+            generator.writeEndObject();
+
+            int number = 1;
+            for (Team team : result.getTeams()) {
+                generator.writeStartObject();
+                generator.writeStringField("type", "team");
+                generator.writeNumberField("team", number++);
+                JsonResultWriter.writeTeamFields(generator, team);
+                generator.writeEndObject();
+            }
+            generator.writeRaw('\n');
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,387 @@
+package io.github.brunoborges.teammaker;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Roster stored outside the Java heap.
+ * <p>
+ * Player data is kept in columns of direct {@link ByteBuffer}s: one
+ * fixed-point score and one id per player, plus a reference into a
+ * dictionary of names. Distinct names are stored once, UTF-8 encoded, in a
+ * single byte arena. A roster of a million players therefore costs a handful
+ * of objects on the heap instead of millions of {@link Player} records and
+ * strings.
+ * <p>
+ * The roster is an immutable {@code List<Player>}, so it can be used wherever
+ * a player list is expected. {@link #get(int)} creates a short-lived
+ * {@link Player} on every call; engines such as {@link CanonicalRoster} read
+ * the score column directly through {@link #fixedScore(int)} instead.
+ */
+public final class OffHeapRoster extends AbstractList<Player> implements RandomAccess {
+
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final FixedPointScale scale;
+    private final int size;
+    private final int nameCount;
+    private final ByteBuffer scores;
+    private final ByteBuffer ids;
+    private final ByteBuffer nameRefs;
+    private final ByteBuffer nameOffsets;
+    private final ByteBuffer names;
+
+    /**
+     * Wraps existing columns. Buffers must use {@link #ORDER} and hold
+     * {@code size} longs, {@code size} ints, {@code size} ints,
+     * {@code nameCount + 1} ints and the name bytes respectively.
+     */
+    OffHeapRoster(FixedPointScale scale, int size, int nameCount, ByteBuffer scores, ByteBuffer ids,
+            ByteBuffer nameRefs, ByteBuffer nameOffsets, ByteBuffer names) {
+        this.scale = scale;
+        this.size = size;
+        this.nameCount = nameCount;
+        this.scores = scores;
+        this.ids = ids;
+        this.nameRefs = nameRefs;
+        this.nameOffsets = nameOffsets;
+        this.names = names;
+    }
+
+    /**
+     * Copies a list of players off the heap using the default fixed-point scale.
+     *
+     * @param players the players to copy
+     * @return the off-heap roster
+     */
+    public static OffHeapRoster of(List<Player> players) {
+        return of(players, FixedPointScale.DEFAULT);
+    }
+
+    /**
+     * Copies a list of players off the heap.
+     *
+     * @param players the players to copy
+     * @param scale   fixed-point scale the scores are stored with
+     * @return the off-heap roster
+     */
+    public static OffHeapRoster of(List<Player> players, FixedPointScale scale) {
+        Builder builder = new Builder(scale, players.size());
+        for (Player player : players) {
+            builder.add(player.name(), player.score());
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder(FixedPointScale.DEFAULT, 16);
+    }
+
+    public static Builder builder(FixedPointScale scale) {
+        return new Builder(scale, 16);
+    }
+
+    @Override
+    public Player get(int index) {
+        return new Player(name(index), score(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public FixedPointScale scale() {
+        return scale;
+    }
+
+    /**
+     * @param index roster index of a player
+     * @return the score of the player, in fixed point
+     */
+    public long fixedScore(int index) {
+        return scores.getLong(checkIndex(index) * Long.BYTES);
+    }
+
+    public double score(int index) {
+        return scale.toDouble(fixedScore(index));
+    }
+
+    /**
+     * @param index roster index of a player
+     * @return the id given to the player when the roster was built
+     */
+    public int id(int index) {
+        return ids.getInt(checkIndex(index) * Integer.BYTES);
+    }
+
+    public String name(int index) {
+        return dictionaryName(nameIndex(index));
+    }
+
+    /**
+     * @param index roster index of a player
+     * @return the position of the player's name in the name dictionary
+     */
+    public int nameIndex(int index) {
+        return nameRefs.getInt(checkIndex(index) * Integer.BYTES);
+    }
+
+    /**
+     * @return the number of distinct names in the roster
+     */
+    public int nameCount() {
+        return nameCount;
+    }
+
+    /**
+     * @param nameIndex position in the name dictionary
+     * @return the name stored at that position
+     */
+    public String dictionaryName(int nameIndex) {
+        int start = nameOffsets.getInt(nameIndex * Integer.BYTES);
+        int end = nameOffsets.getInt((nameIndex + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        names.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the number of bytes the roster holds outside the heap
+     */
+    public long offHeapBytes() {
+        return (long) scores.capacity() + ids.capacity() + nameRefs.capacity()
+                + nameOffsets.capacity() + names.capacity();
+    }
+
+    ByteBuffer scores() {
+        return scores.duplicate().order(ORDER);
+    }
+
+    ByteBuffer ids() {
+        return ids.duplicate().order(ORDER);
+    }
+
+    ByteBuffer nameRefs() {
+        return nameRefs.duplicate().order(ORDER);
+    }
+
+    ByteBuffer nameOffsets() {
+        return nameOffsets.duplicate().order(ORDER);
+    }
+
+    ByteBuffer names() {
+        return names.duplicate().order(ORDER);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return index;
+    }
+
+    /**
+     * Appends players to growing direct buffers. Names are deduplicated with
+     * an open-addressing table over the byte arena, so building does not keep
+     * a string per player on the heap either. Scores are kept as doubles until
+     * {@link #build(FixedPointScale)}, so the scale may be decided last.
+     */
+    public static final class Builder {
+
+        private final FixedPointScale scale;
+        private int size;
+        private int nameCount;
+        private int nameBytes;
+        private ByteBuffer scores;
+        private ByteBuffer ids;
+        private ByteBuffer nameRefs;
+        private ByteBuffer nameOffsets;
+        private ByteBuffer names;
+        private int[] table = new int[64];
+
+        private Builder(FixedPointScale scale, int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            this.scale = scale;
+            this.scores = allocate(capacity * Long.BYTES);
+            this.ids = allocate(capacity * Integer.BYTES);
+            this.nameRefs = allocate(capacity * Integer.BYTES);
+            this.nameOffsets = allocate((capacity + 1) * Integer.BYTES);
+            this.names = allocate(capacity * 8);
+        }
+
+        /**
+         * Add a player whose id is its position in the roster.
+         *
+         * @param name  the player name
+         * @param score the player score
+         * @return this builder
+         */
+        public Builder add(String name, double score) {
+            return add(size, name, score);
+        }
+
+        /**
+         * Add a player.
+         *
+         * @param id    an external id for the player, such as a registration number
+         * @param name  the player name
+         * @param score the player score
+         * @return this builder
+         */
+        public Builder add(int id, String name, double score) {
+            if (name == null) {
+                throw new IllegalArgumentException("Player name cannot be null");
+            }
+            if (size == Integer.MAX_VALUE / Long.BYTES) {
+                throw new IllegalStateException("Off-heap roster is full");
+            }
+            scores = ensure(scores, (size + 1) * Long.BYTES);
+            ids = ensure(ids, (size + 1) * Integer.BYTES);
+            nameRefs = ensure(nameRefs, (size + 1) * Integer.BYTES);
+            scores.putDouble(size * Long.BYTES, score);
+            ids.putInt(size * Integer.BYTES, id);
+            nameRefs.putInt(size * Integer.BYTES, intern(name.getBytes(StandardCharsets.UTF_8)));
+            size++;
+            return this;
+        }
+
+        /**
+         * @return the number of players added so far
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the roster; the builder must not be used afterwards
+         */
+        public OffHeapRoster build() {
+            return build(scale);
+        }
+
+        /**
+         * Build the roster, storing scores with the given scale instead of the
+         * one the builder was created with.
+         *
+         * @param scale fixed-point scale the scores are stored with
+         * @return the roster; the builder must not be used afterwards
+         */
+        public OffHeapRoster build(FixedPointScale scale) {
+            for (int i = 0; i < size; i++) {
+                scores.putLong(i * Long.BYTES, scale.toFixed(scores.getDouble(i * Long.BYTES)));
+            }
+            return new OffHeapRoster(scale, size, nameCount,
+                    trim(scores, size * Long.BYTES),
+                    trim(ids, size * Integer.BYTES),
+                    trim(nameRefs, size * Integer.BYTES),
+                    trim(nameOffsets, (nameCount + 1) * Integer.BYTES),
+                    trim(names, nameBytes));
+        }
+
+        private int intern(byte[] bytes) {
+            int hash = hash(bytes);
+            int mask = table.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = table[slot];
+                if (entry == 0) {
+                    table[slot] = nameCount + 1;
+                    return appendName(bytes);
+                }
+                if (sameName(entry - 1, bytes)) {
+                    return entry - 1;
+                }
+            }
+        }
+
+        private int appendName(byte[] bytes) {
+            names = ensure(names, nameBytes + bytes.length);
+            names.put(nameBytes, bytes);
+            nameOffsets = ensure(nameOffsets, (nameCount + 2) * Integer.BYTES);
+            nameOffsets.putInt(nameCount * Integer.BYTES, nameBytes);
+            nameBytes += bytes.length;
+            nameOffsets.putInt((nameCount + 1) * Integer.BYTES, nameBytes);
+            int index = nameCount++;
+            if (nameCount * 2 > table.length) {
+                rehash();
+            }
+            return index;
+        }
+
+        private boolean sameName(int nameIndex, byte[] bytes) {
+            int start = nameOffsets.getInt(nameIndex * Integer.BYTES);
+            int end = nameOffsets.getInt((nameIndex + 1) * Integer.BYTES);
+            if (end - start != bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (names.get(start + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            int[] grown = new int[table.length * 2];
+            int mask = grown.length - 1;
+            for (int n = 0; n < nameCount; n++) {
+                int start = nameOffsets.getInt(n * Integer.BYTES);
+                int end = nameOffsets.getInt((n + 1) * Integer.BYTES);
+                int slot = hashArena(start, end) & mask;
+                while (grown[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                grown[slot] = n + 1;
+            }
+            table = grown;
+        }
+
+        private int hashArena(int start, int end) {
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + names.get(i);
+            }
+            return mix(hash);
+        }
+
+        private static int hash(byte[] bytes) {
+            int hash = 1;
+            for (byte b : bytes) {
+                hash = 31 * hash + b;
+            }
+            return mix(hash);
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static ByteBuffer ensure(ByteBuffer buffer, int required) {
+            if (required <= buffer.capacity()) {
+                return buffer;
+            }
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, buffer.capacity() * 2L));
+            ByteBuffer grown = allocate(capacity);
+            grown.put(0, buffer, 0, buffer.capacity());
+            return grown;
+        }
+
+        private static ByteBuffer trim(ByteBuffer buffer, int length) {
+            if (length == buffer.capacity()) {
+                return buffer.asReadOnlyBuffer().order(ORDER);
+            }
+            ByteBuffer trimmed = allocate(length);
+            trimmed.put(0, buffer, 0, length);
+            return trimmed.asReadOnlyBuffer().order(ORDER);
+        }
+
+        private static ByteBuffer allocate(int capacity) {
+            return ByteBuffer.allocateDirect(capacity).order(ORDER);
+        }
+    }
+}
@@ -40,7 +40,13 @@ enum DefaultPlayers {
 		return player;
 	}
 
+	/**
+	 * The roster is built once, so a native image initialized at build time
+	 * carries it in the image heap.
+	 */
+	private static final List<Player> PLAYERS = Arrays.asList(DefaultPlayers.values()).stream().map(DefaultPlayers::player).toList();
+
 	public static List<Player> get() {
-		return Arrays.asList(DefaultPlayers.values()).stream().map(DefaultPlayers::player).toList();
+		return PLAYERS;
 	}
 }
@@ -0,0 +1,62 @@
+package io.github.brunoborges.teammaker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes a {@link TeamMakerResult} in a machine-readable format.
+ * <p>
+ * Implementations stream the result straight to the destination and flush
+ * it when done, but never close it. Every format writes team and player
+ * scores rounded to the score precision, so they agree on the numbers.
+ */
+public interface ResultWriter {
+
+    /**
+     * Names accepted by {@link #forFormat(String)}.
+     */
+    List<String> FORMATS = List.of("json", "csv", "ndjson");
+
+    /**
+     * Write a result to a stream.
+     *
+     * @param result the result to write
+     * @param out    the destination, left open
+     * @throws IOException if writing fails
+     */
+    void write(TeamMakerResult result, OutputStream out) throws IOException;
+
+    /**
+     * Write a result to a channel.
+     *
+     * @param result  the result to write
+     * @param channel the destination, left open
+     * @throws IOException if writing fails
+     */
+    default void write(TeamMakerResult result, WritableByteChannel channel) throws IOException {
+        OutputStream out = Channels.newOutputStream(channel);
+        write(result, out);
+        out.flush();
+    }
+
+    /**
+     * Get the writer for a format name.
+     *
+     * @param format one of {@link #FORMATS}, case-insensitive
+     * @return the writer
+     * @throws IllegalArgumentException if the format is unknown
+     */
+    static ResultWriter forFormat(String format) {
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "json" -> new JsonResultWriter();
+            case "csv" -> new CsvResultWriter();
+            case "ndjson" -> new NdjsonResultWriter();
+            default -> throw new IllegalArgumentException(
+                    "Unknown result format '" + format + "', expected one of " + FORMATS);
+        };
+    }
+}
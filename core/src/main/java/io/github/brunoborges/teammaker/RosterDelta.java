@@ -0,0 +1,107 @@
+package io.github.brunoborges.teammaker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Difference between two versions of a roster, matching players by name.
+ * <p>
+ * A player whose name only appears in the new roster is added, one whose
+ * name only appears in the old roster is removed, and one whose score
+ * changed is rescored. Players that appear several times under the same name
+ * are matched in order. Computing a delta takes linear time.
+ */
+public final class RosterDelta {
+
+    private final List<Player> added;
+    private final List<Player> removed;
+    private final List<Player> rescored;
+    private final List<Player> replaced;
+
+    private RosterDelta(List<Player> added, List<Player> removed, List<Player> rescored, List<Player> replaced) {
+        this.added = List.copyOf(added);
+        this.removed = List.copyOf(removed);
+        this.rescored = List.copyOf(rescored);
+        this.replaced = List.copyOf(replaced);
+    }
+
+    /**
+     * Compare two rosters.
+     *
+     * @param previous the old roster
+     * @param current  the new roster
+     * @return the changes that turn the old roster into the new one
+     */
+    public static RosterDelta between(List<Player> previous, List<Player> current) {
+        Map<String, Deque<Player>> byName = new HashMap<>(previous.size() * 2);
+        for (Player player : previous) {
+            byName.computeIfAbsent(player.name(), name -> new ArrayDeque<>(1)).add(player);
+        }
+        List<Player> added = new ArrayList<>();
+        List<Player> rescored = new ArrayList<>();
+        List<Player> replaced = new ArrayList<>();
+        for (Player player : current) {
+            Deque<Player> candidates = byName.get(player.name());
+            Player old = candidates != null ? candidates.poll() : null;
+            if (old == null) {
+                added.add(player);
+            } else if (Double.compare(old.score(), player.score()) != 0) {
+                rescored.add(player);
+                replaced.add(old);
+            }
+        }
+        List<Player> removed = new ArrayList<>();
+        for (Player player : previous) {
+            Deque<Player> left = byName.get(player.name());
+            if (!left.isEmpty()) {
+                removed.add(left.poll());
+            }
+        }
+        return new RosterDelta(added, removed, rescored, replaced);
+    }
+
+    /**
+     * @return players only in the new roster
+     */
+    public List<Player> getAdded() {
+        return added;
+    }
+
+    /**
+     * @return players only in the old roster
+     */
+    public List<Player> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return players whose score changed, with their new score
+     */
+    public List<Player> getRescored() {
+        return rescored;
+    }
+
+    /**
+     * @return the old version of every rescored player, in the order of
+     *         {@link #getRescored()}, so players sharing a name are told apart
+     */
+    public List<Player> getReplaced() {
+        return replaced;
+    }
+
+    /**
+     * @return true if both rosters hold the same players with the same scores
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && rescored.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return added.size() + " added, " + removed.size() + " removed, " + rescored.size() + " rescored";
+    }
+}
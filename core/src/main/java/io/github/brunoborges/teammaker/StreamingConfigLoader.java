@@ -0,0 +1,535 @@
+package io.github.brunoborges.teammaker;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads a configuration with Jackson's streaming {@link JsonParser}.
+ * <p>
+ * Players are read one at a time into an on-heap list, or straight into an
+ * {@link OffHeapRoster} when the loader is created for large rosters, so no
+ * intermediate object tree is built. The loader enforces limits on the
+ * document size, the number of players and team names and the length of
+ * strings. Validation problems do not stop the parse: every error found is
+ * collected and reported at the end in one {@link ConfigValidationException}.
+ * Malformed JSON and exceeded limits still abort immediately.
+ */
+public class StreamingConfigLoader {
+
+    public static final int DEFAULT_MAX_PLAYERS = 5_000_000;
+    public static final int DEFAULT_MAX_TEAMS = 100_000;
+    public static final int DEFAULT_MAX_NAME_LENGTH = 256;
+    public static final long DEFAULT_MAX_DOCUMENT_BYTES = 1L << 30;
+
+    /**
+     * Maximum number of errors kept in a {@link ConfigValidationException};
+     * further errors are only counted.
+     */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private final JsonFactory factory;
+    private final int maxPlayers;
+    private final int maxTeams;
+    private final int maxNameLength;
+    private final boolean offHeap;
+
+    /**
+     * Creates a loader with the default limits that keeps players on the heap.
+     */
+    public StreamingConfigLoader() {
+        this(DEFAULT_MAX_PLAYERS, DEFAULT_MAX_TEAMS, DEFAULT_MAX_NAME_LENGTH, DEFAULT_MAX_DOCUMENT_BYTES);
+    }
+
+    /**
+     * Creates a loader with custom limits that keeps players on the heap.
+     *
+     * @param maxPlayers       maximum number of players in the roster
+     * @param maxTeams         maximum number of team names
+     * @param maxNameLength    maximum length of a player or team name
+     * @param maxDocumentBytes maximum size of the JSON document in bytes
+     */
+    public StreamingConfigLoader(int maxPlayers, int maxTeams, int maxNameLength, long maxDocumentBytes) {
+        this(maxPlayers, maxTeams, maxNameLength, maxDocumentBytes, false);
+    }
+
+    /**
+     * Creates a loader with custom limits.
+     *
+     * @param maxPlayers       maximum number of players in the roster
+     * @param maxTeams         maximum number of team names
+     * @param maxNameLength    maximum length of a player or team name
+     * @param maxDocumentBytes maximum size of the JSON document in bytes
+     * @param offHeap          true to store players in an {@link OffHeapRoster},
+     *                         which pays off for rosters of many thousands of
+     *                         players but costs a few direct buffers per load
+     */
+    public StreamingConfigLoader(int maxPlayers, int maxTeams, int maxNameLength, long maxDocumentBytes,
+            boolean offHeap) {
+        this.maxPlayers = maxPlayers;
+        this.maxTeams = maxTeams;
+        this.maxNameLength = maxNameLength;
+        this.offHeap = offHeap;
+        this.factory = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder()
+                        .maxDocumentLength(maxDocumentBytes)
+                        .maxNestingDepth(16)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Load and validate a configuration.
+     *
+     * @param inputStream the input stream containing JSON data
+     * @return the configuration, with its players in an immutable list or,
+     *         for an off-heap loader, an {@link OffHeapRoster}
+     * @throws IOException               if the stream cannot be read, is not
+     *                                   valid JSON or exceeds a size limit
+     * @throws ConfigValidationException if the configuration has errors
+     */
+    public TeamMakerConfig load(InputStream inputStream) throws IOException {
+        try (JsonParser parser = factory.createParser(inputStream)) {
+            return new Parse(parser, true).run();
+        }
+    }
+
+    /**
+     * Read a configuration without checking that it can be drawn, for editors
+     * that save work in progress such as an uneven roster. Malformed fields
+     * and size limits are still reported; the team count, score range and
+     * constraints are not checked.
+     *
+     * @param inputStream the input stream containing JSON data
+     * @return the configuration, with its players in an immutable list even
+     *         for an off-heap loader; players and team names are empty lists
+     *         when absent
+     * @throws IOException               if the stream cannot be read, is not
+     *                                   valid JSON or exceeds a size limit
+     * @throws ConfigValidationException if a field is malformed
+     */
+    public TeamMakerConfig parse(InputStream inputStream) throws IOException {
+        try (JsonParser parser = factory.createParser(inputStream)) {
+            return new Parse(parser, false).run();
+        }
+    }
+
+    /**
+     * State of a single parse.
+     */
+    private final class Parse {
+
+        private final JsonParser parser;
+        private final boolean validate;
+        private final List<String> errors = new ArrayList<>();
+        private int errorCount;
+        private final BitSet brokenPlayers = new BitSet();
+        private OffHeapRoster.Builder offHeapPlayers;
+        private List<Player> players;
+        private List<String> teamNames;
+        private TeamMakerConfig.ScoreScale scoreScale;
+        private Map<String, String> pins;
+        private List<List<String>> together;
+        private List<List<String>> apart;
+        private Map<String, List<String>> tags;
+        private Map<String, TeamMakerConfig.Quota> quotas;
+
+        Parse(JsonParser parser, boolean validate) {
+            this.parser = parser;
+            this.validate = validate;
+        }
+
+        TeamMakerConfig run() throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                error("Configuration must be a JSON object");
+                throw failure();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "players" -> readPlayers(value);
+                    case "teamNames" -> readTeamNames(value);
+                    case "scoreScale" -> readScoreScale(value);
+                    case "pins" -> readPins(value);
+                    case "together" -> together = readGroups(value, "together");
+                    case "apart" -> apart = readGroups(value, "apart");
+                    case "tags" -> readTags(value);
+                    case "quotas" -> readQuotas(value);
+                    default -> {
+                        error("Unknown field '" + field + "'");
+                        parser.skipChildren();
+                    }
+                }
+            }
+            if (parser.nextToken() != null) {
+                error("Unexpected content after the configuration object");
+            }
+            return finish();
+        }
+
+        private void readPlayers(JsonToken value) throws IOException {
+            if (value != JsonToken.START_ARRAY) {
+                error("'players' must be an array");
+                parser.skipChildren();
+                return;
+            }
+            if (offHeap && validate) {
+                offHeapPlayers = OffHeapRoster.builder();
+            } else {
+                players = new ArrayList<>();
+            }
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (index == maxPlayers) {
+                    error("Roster exceeds the limit of " + maxPlayers + " players");
+                    throw failure();
+                }
+                readPlayer(index++);
+            }
+        }
+
+        private void readPlayer(int index) throws IOException {
+            String path = "players[" + index + "]";
+            String name = null;
+            double score = Double.NaN;
+            int errorsBefore = errorCount;
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                error(path + " must be an object");
+                parser.skipChildren();
+            } else {
+                boolean hasName = false;
+                boolean hasScore = false;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    switch (field) {
+                        case "name" -> {
+                            hasName = true;
+                            name = readName(value, path + ".name");
+                        }
+                        case "score" -> {
+                            hasScore = true;
+                            score = readNumber(value, path + ".score");
+                        }
+                        default -> {
+                            error(path + ": unknown field '" + field + "'");
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                if (!hasName) {
+                    error(path + ": missing name");
+                }
+                if (!hasScore) {
+                    error(path + ": missing score");
+                }
+            }
+            if (errorCount > errorsBefore) {
+                brokenPlayers.set(index);
+            }
+            // Keep indices aligned with the document even for broken entries
+            String keptName = name != null ? name : "";
+            double keptScore = Double.isNaN(score) ? 0 : score;
+            if (offHeapPlayers != null) {
+                offHeapPlayers.add(keptName, keptScore);
+            } else {
+                players.add(new Player(keptName, keptScore));
+            }
+        }
+
+        private String readName(JsonToken value, String path) throws IOException {
+            if (value != JsonToken.VALUE_STRING) {
+                error(path + " must be a string");
+                parser.skipChildren();
+                return null;
+            }
+            if (parser.getTextLength() > maxNameLength) {
+                error(path + " is longer than " + maxNameLength + " characters");
+                return null;
+            }
+            return parser.getText();
+        }
+
+        private double readNumber(JsonToken value, String path) throws IOException {
+            double number = Double.NaN;
+            boolean parsed = false;
+            if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+                number = parser.getDoubleValue();
+                parsed = true;
+            } else if (value == JsonToken.VALUE_STRING) {
+                try {
+                    number = Double.parseDouble(parser.getText().trim());
+                    parsed = true;
+                } catch (NumberFormatException e) {
+                    // Reported below
+                }
+            }
+            if (Double.isFinite(number)) {
+                return number;
+            }
+            // "NaN", "Infinity" and literals too large for a double parse, but
+            // are no score
+            error(path + (parsed ? " must be a finite number" : " must be a number"));
+            parser.skipChildren();
+            return Double.NaN;
+        }
+
+        private void readTeamNames(JsonToken value) throws IOException {
+            if (value != JsonToken.START_ARRAY) {
+                error("'teamNames' must be an array");
+                parser.skipChildren();
+                return;
+            }
+            teamNames = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (teamNames.size() == maxTeams) {
+                    error("Configuration exceeds the limit of " + maxTeams + " teams");
+                    throw failure();
+                }
+                String name = readName(parser.currentToken(), "teamNames[" + teamNames.size() + "]");
+                teamNames.add(name != null ? name : "");
+            }
+        }
+
+        private void readScoreScale(JsonToken value) throws IOException {
+            if (value != JsonToken.START_OBJECT) {
+                error("'scoreScale' must be an object");
+                parser.skipChildren();
+                return;
+            }
+            scoreScale = new TeamMakerConfig.ScoreScale();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken fieldValue = parser.nextToken();
+                switch (field) {
+                    case "min" -> scoreScale.setMin(readNumber(fieldValue, "scoreScale.min"));
+                    case "max" -> scoreScale.setMax(readNumber(fieldValue, "scoreScale.max"));
+                    case "precision" -> {
+                        if (fieldValue == JsonToken.VALUE_NUMBER_INT) {
+                            scoreScale.setPrecision(parser.getIntValue());
+                        } else {
+                            error("scoreScale.precision must be an integer");
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> {
+                        error("scoreScale: unknown field '" + field + "'");
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+
+        private void readPins(JsonToken value) throws IOException {
+            if (value != JsonToken.START_OBJECT) {
+                error("'pins' must be an object mapping player names to team names");
+                parser.skipChildren();
+                return;
+            }
+            pins = new LinkedHashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String player = parser.currentName();
+                String team = readName(parser.nextToken(), "pins." + player);
+                if (team != null) {
+                    pins.put(player, team);
+                }
+            }
+        }
+
+        private List<List<String>> readGroups(JsonToken value, String field) throws IOException {
+            if (value != JsonToken.START_ARRAY) {
+                error("'" + field + "' must be an array of arrays of player names");
+                parser.skipChildren();
+                return null;
+            }
+            List<List<String>> groups = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                String path = field + "[" + groups.size() + "]";
+                List<String> group = new ArrayList<>();
+                if (parser.currentToken() != JsonToken.START_ARRAY) {
+                    error(path + " must be an array of player names");
+                    parser.skipChildren();
+                } else {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        String name = readName(parser.currentToken(), path + "[" + group.size() + "]");
+                        if (name != null) {
+                            group.add(name);
+                        }
+                    }
+                }
+                groups.add(group);
+            }
+            return groups;
+        }
+
+        private void readTags(JsonToken value) throws IOException {
+            if (value != JsonToken.START_OBJECT) {
+                error("'tags' must be an object mapping tags to arrays of player names");
+                parser.skipChildren();
+                return;
+            }
+            tags = new LinkedHashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String tag = parser.currentName();
+                String path = "tags." + tag;
+                List<String> names = new ArrayList<>();
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    error(path + " must be an array of player names");
+                    parser.skipChildren();
+                } else {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        String name = readName(parser.currentToken(), path + "[" + names.size() + "]");
+                        if (name != null) {
+                            names.add(name);
+                        }
+                    }
+                }
+                tags.put(tag, names);
+            }
+        }
+
+        private void readQuotas(JsonToken value) throws IOException {
+            if (value != JsonToken.START_OBJECT) {
+                error("'quotas' must be an object mapping tags to quotas");
+                parser.skipChildren();
+                return;
+            }
+            quotas = new LinkedHashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String tag = parser.currentName();
+                String path = "quotas." + tag;
+                TeamMakerConfig.Quota quota = new TeamMakerConfig.Quota();
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    error(path + " must be an object");
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken fieldValue = parser.nextToken();
+                    if (!field.equals("min") && !field.equals("max")) {
+                        error(path + ": unknown field '" + field + "'");
+                        parser.skipChildren();
+                    } else if (fieldValue != JsonToken.VALUE_NUMBER_INT) {
+                        error(path + "." + field + " must be an integer");
+                        parser.skipChildren();
+                    } else if (field.equals("min")) {
+                        quota.setMin(parser.getIntValue());
+                    } else {
+                        quota.setMax(parser.getIntValue());
+                    }
+                }
+                quotas.put(tag, quota);
+            }
+        }
+
+        /**
+         * Run the checks of {@link TeamMakerConfig#validate()} on the parsed
+         * data, collecting every failure instead of stopping at the first.
+         * Without validation only the malformed fields already found are
+         * reported.
+         */
+        private TeamMakerConfig finish() {
+            if (!validate) {
+                if (errorCount > 0) {
+                    throw failure();
+                }
+                TeamMakerConfig config = new TeamMakerConfig(players != null ? List.copyOf(players) : List.of(),
+                        teamNames != null ? teamNames : List.of(), scoreScale);
+                config.setPins(pins);
+                config.setTogether(together);
+                config.setApart(apart);
+                config.setTags(tags);
+                config.setQuotas(quotas);
+                return config;
+            }
+
+            FixedPointScale scale = FixedPointScale.DEFAULT;
+            boolean scaleValid = scoreScale == null;
+            if (scoreScale != null) {
+                if (scoreScale.getMin() >= scoreScale.getMax()) {
+                    error("Score scale minimum must be less than maximum");
+                }
+                try {
+                    scale = scoreScale.fixedPointScale();
+                    scaleValid = true;
+                } catch (IllegalArgumentException e) {
+                    error(e.getMessage());
+                }
+            }
+
+            List<Player> roster = offHeapPlayers != null ? offHeapPlayers.build(scale)
+                    : players != null ? List.copyOf(players) : null;
+            if (roster == null || roster.isEmpty()) {
+                error("Players list cannot be null or empty");
+            }
+            if (teamNames == null || teamNames.isEmpty()) {
+                error("Team names list cannot be null or empty");
+            }
+            if (roster != null && !roster.isEmpty() && teamNames != null && !teamNames.isEmpty()) {
+                int numPlayers = roster.size();
+                int numTeams = teamNames.size();
+                if (numPlayers % numTeams != 0) {
+                    error(String.format("Number of players (%d) must be evenly divisible by number of teams (%d). " +
+                                    "Current division results in %d players per team with %d remaining players.",
+                            numPlayers, numTeams, numPlayers / numTeams, numPlayers % numTeams));
+                }
+            }
+            if (roster != null && scoreScale != null && scaleValid) {
+                // A single pass over the scores, reading an off-heap score
+                // column directly
+                OffHeapRoster columns = roster instanceof OffHeapRoster offHeapRoster ? offHeapRoster : null;
+                for (int i = 0; i < roster.size(); i++) {
+                    double score = columns != null ? columns.score(i) : roster.get(i).score();
+                    if (!brokenPlayers.get(i) && !scoreScale.isValidScore(score)) {
+                        error(String.format("Player %s has score %.1f which is outside the valid range [%.1f, %.1f]",
+                                columns != null ? columns.name(i) : roster.get(i).name(), score,
+                                scoreScale.getMin(), scoreScale.getMax()));
+                    }
+                }
+            }
+
+            TeamMakerConfig config = new TeamMakerConfig(roster, teamNames, scoreScale);
+            config.setPins(pins);
+            config.setTogether(together);
+            config.setApart(apart);
+            config.setTags(tags);
+            config.setQuotas(quotas);
+            if (errorCount == 0) {
+                try {
+                    config.constraints();
+                } catch (IllegalArgumentException e) {
+                    error(e.getMessage());
+                }
+            }
+
+            if (errorCount > 0) {
+                throw failure();
+            }
+            return config;
+        }
+
+        private void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+            errorCount++;
+        }
+
+        private ConfigValidationException failure() {
+            return new ConfigValidationException(errors, errorCount);
+        }
+    }
+}
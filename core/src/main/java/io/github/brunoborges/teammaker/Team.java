@@ -1,18 +1,27 @@
 package io.github.brunoborges.teammaker;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Team {
 
 	private List<Player> players = new ArrayList<Player>();
-	private double score = 0;
+	private final List<Player> view = Collections.unmodifiableList(players);
+	private volatile boolean sealed;
+	private long fixedScore = 0;
 	private String name;
 	private int playerLimit;
+	private final FixedPointScale scale;
 
 	public Team(String name, int playersPerTeam) {
+		this(name, playersPerTeam, FixedPointScale.DEFAULT);
+	}
+
+	public Team(String name, int playersPerTeam, FixedPointScale scale) {
 		this.name = name;
 		this.playerLimit = playersPerTeam;
+		this.scale = scale;
 	}
 
 	public boolean isComplete() {
@@ -20,25 +29,67 @@ public class Team {
 	}
 
 	public void add(Player p) {
+		if (sealed) {
+			throw new IllegalStateException("Team '" + getName() + "' is sealed");
+		}
 		if (isComplete()) {
 			throw new IllegalStateException("Team '" + getName() + "' is already complete");
 		}
-		score += p.score();
+		fixedScore += scale.toFixed(p.score());
 		players.add(p);
 	}
 
+	/**
+	 * Get the team score. Player scores are summed in fixed point, so the result
+	 * is rounded to the precision of {@link #getScale()} (three decimal places
+	 * by default) rather than being the exact sum of the player doubles.
+	 * 
+	 * @return the team score
+	 */
 	public double getScore() {
-		return score;
+		return scale.toDouble(fixedScore);
+	}
+
+	/**
+	 * @return the team score in fixed point, see {@link #getScale()}
+	 */
+	public long getFixedScore() {
+		return fixedScore;
+	}
+
+	public FixedPointScale getScale() {
+		return scale;
 	}
 
 	public String getName() {
 		return name;
 	}
 
+	/**
+	 * Get the players of this team. Sealed teams return a shared read-only
+	 * view without copying; open teams return a defensive copy.
+	 * 
+	 * @return the players of this team
+	 */
 	public List<Player> getPlayers() {
+		if (sealed) {
+			return view;
+		}
 		return new ArrayList<>(players); // Return defensive copy
 	}
 
+	/**
+	 * Freeze this team once its draw is complete. A sealed team rejects further
+	 * changes, so its player view can be handed out and shared across threads.
+	 */
+	public void seal() {
+		sealed = true;
+	}
+
+	public boolean isSealed() {
+		return sealed;
+	}
+
 	public String toString() {
 		var playersText = new StringBuilder();
 		players.forEach(p -> playersText.append("\n\t\t%s (%.1f),".formatted(p.name(), p.score())));
@@ -51,8 +102,20 @@ public class Team {
 				%s [strength = %.1f, players = {%s}]""".formatted(getName(), getScore(), playersText.toString());
 	}
 
+	/**
+	 * Clear a team for reuse by the engine that owns it, even if it was sealed.
+	 */
+	void recycle() {
+		this.sealed = false;
+		this.fixedScore = 0;
+		players.clear();
+	}
+
 	public void reset() {
-		this.score = 0;
+		if (sealed) {
+			throw new IllegalStateException("Team '" + getName() + "' is sealed");
+		}
+		this.fixedScore = 0;
 		players.clear();
 	}
 }
\ No newline at end of file
@@ -2,8 +2,6 @@ package io.github.brunoborges.teammaker;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 
@@ -14,21 +12,32 @@ import java.util.Random;
 public class TeamMaker {
 
 	private static final int PLAYERS_PER_TEAM = 2;
+
+	/**
+	 * Teams are balanced when the weakest team has at least this percentage of
+	 * the strongest team's score.
+	 */
+	static final int BALANCE_PERCENT = 70;
+	static final double BALANCE_RATIO = BALANCE_PERCENT / 100.0;
+
 	private static final char[] ALPHABET = { 'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O',
 			'P', 'Q',
 			'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z' };
 
-	private List<Player> players;
-	private List<Team> teams;
-	private double averageStrength;
 	private final int playersPerTeam;
 	private List<String> teamNames;
+	private final FixedPointScale scale;
+	private final TeamMakerConfig rules;
+	private final Random random = new Random();
+	private List<Player> compiledPlayers;
+	private int compiledVersion;
+	private DrawContext compiledContext;
 
 	public TeamMaker(int playersPerTeam) {
-		this.players = new ArrayList<>();
-		this.teams = new ArrayList<>();
 		this.playersPerTeam = playersPerTeam;
 		this.teamNames = null; // Will use default alphabet-based names
+		this.scale = FixedPointScale.DEFAULT;
+		this.rules = new TeamMakerConfig();
 	}
 
 	public TeamMaker() {
@@ -36,15 +45,16 @@ public class TeamMaker {
 	}
 
 	/**
-	 * Creates a TeamMaker instance from JSON configuration.
+	 * Creates a TeamMaker instance from JSON configuration. Constraints of the
+	 * configuration apply to every roster drawn by this instance.
 	 * 
 	 * @param config the configuration loaded from JSON
 	 */
 	public TeamMaker(TeamMakerConfig config) {
-		this.players = new ArrayList<>();
-		this.teams = new ArrayList<>();
 		this.playersPerTeam = config.calculatePlayersPerTeam();
 		this.teamNames = new ArrayList<>(config.getTeamNames());
+		this.scale = config.fixedPointScale();
+		this.rules = config;
 	}
 
 	/**
@@ -94,13 +104,16 @@ public class TeamMaker {
 	}
 
 	/**
-	 * Creates balanced teams from the provided list of players.
+	 * Creates balanced teams from the provided list of players. The compiled
+	 * roster is kept for the next call, so drawing the same players again
+	 * skips the canonical sort and the constraint resolution.
 	 * 
 	 * @param playerList the list of players to organize into teams
 	 * @return TeamMakerResult containing the teams and balance information
-	 * @throws IllegalArgumentException if the number of players is not evenly divisible by playersPerTeam
+	 * @throws IllegalArgumentException if the number of players is not evenly divisible by playersPerTeam,
+	 *                                  or a constrained player is missing from the list
 	 */
-	public TeamMakerResult createBalancedTeams(List<Player> playerList) {
+	public synchronized TeamMakerResult createBalancedTeams(List<Player> playerList) {
 		// Validate that players can be evenly divided into teams
 		if (playerList.size() % playersPerTeam != 0) {
 			throw new IllegalArgumentException(
@@ -109,155 +122,108 @@ public class TeamMaker {
 							playerList.size(), playersPerTeam, playerList.size() / playersPerTeam, 
 							playerList.size() % playersPerTeam));
 		}
-		
-		initializePlayers(playerList);
-		prepareTeams();
-		assembleTeams();
-
-		boolean balanced = calculateBalance();
-		double minStrength = teams.stream().mapToDouble(Team::getScore).min().orElse(0);
-		double maxStrength = teams.stream().mapToDouble(Team::getScore).max().orElse(0);
+		if (playerList.isEmpty()) {
+			return buildResult(new ArrayList<>());
+		}
 
-		return new TeamMakerResult(new ArrayList<>(teams), balanced, minStrength, maxStrength);
+		DrawContext context = compile(playerList);
+		context.draw();
+		return context.toResult();
 	}
 
 	/**
-	 * Get the default list of players.
-	 * 
-	 * @return list of default players
+	 * @param playerList the players to draw
+	 * @return the draw context of the previous call if it drew the same
+	 *         players under the same rules, otherwise a new one
 	 */
-	public List<Player> getDefaultPlayers() {
-		return DefaultPlayers.get();
-	}
-
-	private void initializePlayers(List<Player> playerList) {
-		players.clear();
-		players.addAll(playerList);
-		calculateAverage();
-	}
-
-	private void prepareTeams() {
-		teams.clear();
-		int totalTeams = players.size() / playersPerTeam;
-		
-		for (int i = 0; i < totalTeams; i++) {
-			String teamName;
-			if (teamNames != null && i < teamNames.size()) {
-				teamName = teamNames.get(i);
-			} else {
-				teamName = "Team " + ALPHABET[i % ALPHABET.length];
-			}
-			teams.add(new Team(teamName, playersPerTeam));
+	private DrawContext compile(List<Player> playerList) {
+		if (compiledContext != null && compiledVersion == rules.version()
+				&& (playerList == compiledPlayers || playerList.equals(compiledPlayers))) {
+			return compiledContext;
 		}
+		// Off-heap and immutable rosters are kept as they are; anything else
+		// is copied so later changes to the caller's list are noticed
+		List<Player> players = playerList instanceof OffHeapRoster ? playerList : List.copyOf(playerList);
+		CanonicalRoster roster = CanonicalRoster.of(players, players.size() / playersPerTeam, scale);
+		// The configuration's own roster reuses the constraints resolved when it was loaded
+		DrawConstraints constraints = playerList == rules.getPlayers() && teamNames.equals(rules.getTeamNames())
+				? rules.constraints() : DrawConstraints.of(players, teamNames, rules);
+		compiledContext = new DrawContext(roster, teamNames, constraints, random);
+		compiledPlayers = players;
+		compiledVersion = rules.version();
+		return compiledContext;
 	}
 
-	private void calculateAverage() {
-		double totalStrength = 0;
-
-		for (Player p : players) {
-			totalStrength += p.score();
+	/**
+	 * Creates teams from a precomputed assignment instead of drawing them.
+	 * 
+	 * @param playerList the players to organize into teams
+	 * @param teamOf     team index of every player, by position in playerList
+	 * @return TeamMakerResult containing the teams and balance information
+	 */
+	TeamMakerResult createTeams(List<Player> playerList, int[] teamOf) {
+		List<Team> teams = prepareTeams(playerList.size() / playersPerTeam);
+		for (int i = 0; i < teamOf.length; i++) {
+			teams.get(teamOf[i]).add(playerList.get(i));
 		}
 
-		averageStrength = totalStrength / players.size();
+		return buildResult(teams);
 	}
 
-	private boolean calculateBalance() {
-		double minimumStrength = Double.MAX_VALUE;
-		double maximumStrength = Double.MIN_VALUE;
-
+	private TeamMakerResult buildResult(List<Team> teams) {
 		for (Team team : teams) {
-			minimumStrength = Math.min(team.getScore(), minimumStrength);
-			maximumStrength = Math.max(team.getScore(), maximumStrength);
+			team.seal();
 		}
+		List<Team> result = List.copyOf(teams);
+		TeamStatistics statistics = TeamStatistics.of(result);
 
-		return !(minimumStrength < 0.7 * maximumStrength);
+		return new TeamMakerResult(result, calculateBalance(statistics), statistics);
 	}
 
-	private void assembleTeams() {
-		// Randomize the list of players
-		Collections.shuffle(players, new Random(System.currentTimeMillis()));
-		Collections.shuffle(teams, new Random(System.currentTimeMillis()));
-
-		Iterator<Team> itTeam = teams.iterator();
-		while (players.size() > 0) {
-			if (!itTeam.hasNext()) {
-				// Check if any teams can still accept players
-				boolean anyIncompleteTeam = teams.stream().anyMatch(team -> !team.isComplete());
-				if (!anyIncompleteTeam) {
-					// All teams are complete, but we have remaining players
-					break;
-				}
-				itTeam = teams.iterator();
-			}
-
-			Team currentTeam = itTeam.next();
-			if (currentTeam.isComplete()) {
-				continue;
-			}
-
-			Player p = getPlayer(currentTeam);
-			currentTeam.add(p);
-		}
+	FixedPointScale getScale() {
+		return scale;
 	}
 
-	private Player getPlayer(double strength) {
-		if (players.size() == 0)
-			return null;
-		else if (players.size() == 1)
-			return players.remove(0);
-
-		Player bestPlayer = null;
-		double bestDifference = Double.MAX_VALUE;
+	/**
+	 * Get the default list of players.
+	 * 
+	 * @return list of default players
+	 */
+	public List<Player> getDefaultPlayers() {
+		return DefaultPlayers.get();
+	}
 
-		// Find the player with score closest to the desired strength
-		for (Player p : players) {
-			double difference = Math.abs(p.score() - strength);
-			if (difference < bestDifference) {
-				bestDifference = difference;
-				bestPlayer = p;
-			}
+	private List<Team> prepareTeams(int totalTeams) {
+		List<Team> teams = new ArrayList<>(totalTeams);
+		for (int i = 0; i < totalTeams; i++) {
+			teams.add(new Team(teamName(teamNames, i), playersPerTeam, scale));
 		}
-
-		if (bestPlayer != null)
-			players.remove(bestPlayer);
-
-		return bestPlayer;
+		return teams;
 	}
 
-	private Player getPlayer(Team currentTeam) {
-		double weight = Math.random();
-
-		if (currentTeam.getScore() < averageStrength) {
-			weight += Math.random();
-		} else {
-			weight -= Math.random();
+	/**
+	 * Name of the i-th team: the configured name if there is one, otherwise an
+	 * alphabet-based default.
+	 */
+	static String teamName(List<String> teamNames, int i) {
+		if (teamNames != null && i < teamNames.size()) {
+			return teamNames.get(i);
 		}
+		return "Team " + ALPHABET[i % ALPHABET.length];
+	}
 
-		double strength = 0;
-		if (weight >= 0 && weight < 0.10) {
-			// 10%
-			strength = 1;
-		} else if (weight >= 0.10 && weight < 0.25) {
-			// 15%
-			strength = 2;
-		} else if (weight >= 0.25 && weight < 0.65) {
-			// 40%
-			strength = 3;
-		} else if (weight >= 0.65 && weight < 0.95) {
-			// 30%
-			strength = 4;
-		} else if (weight >= 0.95) {
-			// 5%
-			strength = 5;
+	private boolean calculateBalance(TeamStatistics statistics) {
+		if (statistics.getTeamCount() == 0) {
+			return true;
 		}
 
-		Player player = getPlayer(strength);
-		while (player == null && players.size() > 0) {
-			// Try different strength values if no player found
-			strength = Math.random() * 5 + 1;
-			player = getPlayer(strength);
-		}
+		return isBalanced(statistics.getFixedMinimum(), statistics.getFixedMaximum());
+	}
 
-		return player;
+	/**
+	 * Exact balance check on fixed-point team strengths.
+	 */
+	static boolean isBalanced(long minimumStrength, long maximumStrength) {
+		return !(minimumStrength * 100 < BALANCE_PERCENT * maximumStrength);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package io.github.brunoborges.teammaker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Draws many independent rosters in parallel.
+ * <p>
+ * Each configuration is validated and drawn on its own, so a bad roster only
+ * fails its own entry. Results are returned in the same order as the input,
+ * regardless of which worker finished first. The number of concurrent draws
+ * is bounded by the parallelism given at construction time.
+ */
+public class TeamMakerBatch implements AutoCloseable {
+
+    /**
+     * Default number of attempts per roster before giving up on a balanced draw.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 100;
+
+    private final ExecutorService executor;
+    private final int maxAttempts;
+
+    /**
+     * Creates a batch using one worker per available processor.
+     */
+    public TeamMakerBatch() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a batch with the given number of workers.
+     *
+     * @param parallelism maximum number of rosters drawn at the same time
+     */
+    public TeamMakerBatch(int parallelism) {
+        this(parallelism, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Creates a batch with the given number of workers and attempts per roster.
+     *
+     * @param parallelism maximum number of rosters drawn at the same time
+     * @param maxAttempts maximum number of draws per roster until a balanced one is found
+     * @throws IllegalArgumentException if either argument is not positive
+     */
+    public TeamMakerBatch(int parallelism, int maxAttempts) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1, but was " + maxAttempts);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "teammaker-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Draws balanced teams for every configuration.
+     *
+     * @param configs the configurations to draw, one per independent game
+     * @return one outcome per configuration, in input order
+     */
+    public List<Outcome> createBalancedTeams(List<TeamMakerConfig> configs) {
+        List<Callable<Outcome>> tasks = new ArrayList<>(configs.size());
+        for (int i = 0; i < configs.size(); i++) {
+            int index = i;
+            TeamMakerConfig config = configs.get(i);
+            tasks.add(() -> draw(index, config));
+        }
+
+        List<Outcome> outcomes = new ArrayList<>(configs.size());
+        try {
+            List<Future<Outcome>> futures = executor.invokeAll(tasks);
+            for (Future<Outcome> future : futures) {
+                outcomes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch draw was interrupted", e);
+        } catch (ExecutionException e) {
+            // draw() never throws, so this only happens on an unexpected Error
+            throw new IllegalStateException("Batch draw failed unexpectedly", e.getCause());
+        }
+        return outcomes;
+    }
+
+    private Outcome draw(int index, TeamMakerConfig config) {
+        try {
+            // The roster is compiled once and reused by every attempt
+            DrawContext context = new DrawContext(config);
+            context.drawUntilBalanced(maxAttempts);
+            return new Outcome(index, context.toResult(), null);
+        } catch (Exception e) {
+            return new Outcome(index, null, e);
+        }
+    }
+
+    /**
+     * Stops the worker threads. Draws already running are allowed to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Outcome of drawing a single roster within a batch.
+     *
+     * @param index  position of the configuration in the input list
+     * @param result the drawn teams, or {@code null} if the roster failed
+     * @param error  the failure, or {@code null} if the roster was drawn
+     */
+    public record Outcome(int index, TeamMakerResult result, Exception error) {
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package io.github.brunoborges.teammaker;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Memoizes balanced draws by canonical roster.
+ * <p>
+ * The first request for a roster draws a number of candidates and keeps the one
+ * with the smallest strength difference, in {@link CanonicalRoster canonical form}.
+ * Later requests for a roster with the same scores and team count reuse that
+ * solution, only re-randomizing which of the equal-score players goes where
+ * and which team name gets which line-up. Entries live in a size-bounded
+ * in-memory LRU and, optionally, in a directory on disk.
+ */
+public class TeamMakerCache {
+
+    /**
+     * Default number of candidate draws evaluated on a cache miss.
+     */
+    public static final int DEFAULT_CANDIDATES = 32;
+
+    private static final String OBJECTIVE = "min-spread-" + TeamMaker.BALANCE_PERCENT;
+
+    private final Map<String, StoredSolution> entries;
+    private final Path directory;
+    private final int candidates;
+    private final Random random = new Random();
+
+    /**
+     * Creates an in-memory cache.
+     *
+     * @param maxEntries maximum number of solutions kept in memory
+     */
+    public TeamMakerCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * Creates a cache backed by a directory on disk.
+     *
+     * @param maxEntries maximum number of solutions kept in memory
+     * @param directory  directory holding persisted solutions, or {@code null} for memory only
+     */
+    public TeamMakerCache(int maxEntries, Path directory) {
+        this(maxEntries, directory, DEFAULT_CANDIDATES);
+    }
+
+    /**
+     * Creates a cache backed by a directory on disk.
+     *
+     * @param maxEntries maximum number of solutions kept in memory
+     * @param directory  directory holding persisted solutions, or {@code null} for memory only
+     * @param candidates number of draws evaluated when a roster is not cached yet
+     * @throws IllegalArgumentException if maxEntries or candidates is not positive
+     */
+    public TeamMakerCache(int maxEntries, Path directory, int candidates) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Max entries must be at least 1, but was " + maxEntries);
+        }
+        if (candidates < 1) {
+            throw new IllegalArgumentException("Candidates must be at least 1, but was " + candidates);
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredSolution> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.directory = directory;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Creates balanced teams for the configuration, reusing a cached solution
+     * when one exists for the same canonical roster. Configurations with
+     * constraints are drawn without the cache, since their teams are not
+     * interchangeable.
+     *
+     * @param config the team maker configuration
+     * @return TeamMakerResult containing the teams and balance information
+     * @throws IllegalArgumentException if the configuration is invalid
+     * @throws UncheckedIOException if a solution cannot be written to disk
+     */
+    public TeamMakerResult createBalancedTeams(TeamMakerConfig config) {
+        config.validate();
+        List<Player> players = config.getPlayers();
+        TeamMaker teamMaker = new TeamMaker(config);
+        if (config.hasConstraints()) {
+            return bestOf(teamMaker, players);
+        }
+        CanonicalRoster roster = CanonicalRoster.of(players, config.getTeamNames().size(), config.fixedPointScale());
+        String key = keyOf(roster);
+
+        StoredSolution cached = lookup(key, roster);
+        if (cached != null) {
+            int[] teamOf;
+            synchronized (random) {
+                teamOf = roster.expand(cached.teams(), random);
+            }
+            return teamMaker.createTeams(players, teamOf);
+        }
+
+        TeamMakerResult best = bestOf(teamMaker, players);
+        store(key, new StoredSolution(roster, roster.canonicalize(best.getTeams())));
+        return best;
+    }
+
+    private TeamMakerResult bestOf(TeamMaker teamMaker, List<Player> players) {
+        TeamMakerResult best = teamMaker.createBalancedTeams(players);
+        for (int i = 1; i < candidates; i++) {
+            TeamMakerResult candidate = teamMaker.createBalancedTeams(players);
+            if (spread(candidate) < spread(best)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return number of solutions currently held in memory
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop every solution held in memory. Solutions on disk are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private StoredSolution lookup(String key, CanonicalRoster roster) {
+        StoredSolution solution;
+        synchronized (this) {
+            solution = entries.get(key);
+        }
+        if (solution == null && directory != null) {
+            solution = readFromDisk(key);
+            if (solution != null && solution.matches(roster)) {
+                synchronized (this) {
+                    entries.put(key, solution);
+                }
+            }
+        }
+        return solution != null && solution.matches(roster) ? solution : null;
+    }
+
+    private void store(String key, StoredSolution solution) {
+        synchronized (this) {
+            entries.put(key, solution);
+        }
+        if (directory != null) {
+            writeToDisk(key, solution);
+        }
+    }
+
+    private StoredSolution readFromDisk(String key) {
+        Path file = directory.resolve(key + ".json");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (JsonParser parser = JsonResultWriter.JSON.createParser(file.toFile())) {
+            return StoredSolution.read(parser);
+        } catch (IOException | RuntimeException e) {
+            // A corrupt or outdated entry is treated as a miss and overwritten
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, StoredSolution solution) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            try (JsonGenerator generator = JsonResultWriter.JSON.createGenerator(temp.toFile(), JsonEncoding.UTF8)) {
+                solution.write(generator);
+            }
+            Files.move(temp, directory.resolve(key + ".json"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot store solution in " + directory, e);
+        }
+    }
+
+    private static String keyOf(CanonicalRoster roster) {
+        return String.format("%016x-%d-%s", roster.canonicalHash(), roster.teamCount(), OBJECTIVE);
+    }
+
+    private static double spread(TeamMakerResult result) {
+        return result.getMaximumStrength() - result.getMinimumStrength();
+    }
+
+    /**
+     * A canonical solution together with the roster shape it belongs to, so
+     * that hash collisions are detected instead of producing wrong teams.
+     */
+    record StoredSolution(long[] classScores, int[] classSizes, int[][] teams) {
+
+        StoredSolution(CanonicalRoster roster, int[][] teams) {
+            this(classScoresOf(roster), classSizesOf(roster), teams);
+        }
+
+        /**
+         * Check that the solution belongs to the roster and deals out every
+         * player exactly once, so a truncated or edited entry on disk is
+         * treated as a miss instead of failing every later expansion.
+         */
+        boolean matches(CanonicalRoster roster) {
+            return teams.length == roster.teamCount()
+                    && Arrays.equals(classScores, classScoresOf(roster))
+                    && Arrays.equals(classSizes, classSizesOf(roster))
+                    && dealsEveryPlayer(roster.playersPerTeam());
+        }
+
+        private boolean dealsEveryPlayer(int playersPerTeam) {
+            int[] dealt = new int[classSizes.length];
+            for (int[] team : teams) {
+                if (team.length != classSizes.length) {
+                    return false;
+                }
+                int size = 0;
+                for (int c = 0; c < team.length; c++) {
+                    if (team[c] < 0) {
+                        return false;
+                    }
+                    size += team[c];
+                    dealt[c] += team[c];
+                }
+                if (size != playersPerTeam) {
+                    return false;
+                }
+            }
+            return Arrays.equals(dealt, classSizes);
+        }
+
+        /**
+         * Write the solution as {@code {"classScores":[..],"classSizes":[..],"teams":[[..],..]}}.
+         */
+        void write(JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName("classScores");
+            generator.writeArray(classScores, 0, classScores.length);
+            generator.writeFieldName("classSizes");
+            generator.writeArray(classSizes, 0, classSizes.length);
+            generator.writeArrayFieldStart("teams");
+            for (int[] team : teams) {
+                generator.writeArray(team, 0, team.length);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        /**
+         * Read a solution written by {@link #write(JsonGenerator)}.
+         *
+         * @throws IOException if the document is malformed or incomplete
+         */
+        static StoredSolution read(JsonParser parser) throws IOException {
+            long[] classScores = null;
+            int[] classSizes = null;
+            int[][] teams = null;
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a solution object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "classScores" -> classScores = readLongs(parser);
+                    case "classSizes" -> classSizes = readInts(parser);
+                    case "teams" -> {
+                        expectArray(parser);
+                        List<int[]> rows = new ArrayList<>();
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            rows.add(readInts(parser));
+                        }
+                        teams = rows.toArray(new int[0][]);
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (classScores == null || classSizes == null || teams == null) {
+                throw new IOException("Incomplete solution");
+            }
+            return new StoredSolution(classScores, classSizes, teams);
+        }
+
+        private static long[] readLongs(JsonParser parser) throws IOException {
+            expectArray(parser);
+            long[] values = new long[8];
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = parser.getLongValue();
+            }
+            return Arrays.copyOf(values, count);
+        }
+
+        private static int[] readInts(JsonParser parser) throws IOException {
+            expectArray(parser);
+            int[] values = new int[8];
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = parser.getIntValue();
+            }
+            return Arrays.copyOf(values, count);
+        }
+
+        private static void expectArray(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected an array but found " + parser.currentToken());
+            }
+        }
+
+        private static long[] classScoresOf(CanonicalRoster roster) {
+            long[] scores = new long[roster.classCount()];
+            for (int c = 0; c < scores.length; c++) {
+                scores[c] = roster.classFixedScore(c);
+            }
+            return scores;
+        }
+
+        private static int[] classSizesOf(CanonicalRoster roster) {
+            int[] sizes = new int[roster.classCount()];
+            for (int c = 0; c < sizes.length; c++) {
+                sizes[c] = roster.classSize(c);
+            }
+            return sizes;
+        }
+    }
+}
@@ -1,16 +1,30 @@
 package io.github.brunoborges.teammaker;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration class for team maker that can be loaded from JSON.
- * Contains players, team names, and scoring configuration.
+ * Contains players, team names, and scoring configuration, plus optional
+ * constraints: pins that fix players such as captains to a named team,
+ * groups of players who must play together or apart, and tags with per-team
+ * quotas that spread categories of players evenly.
  */
 public class TeamMakerConfig {
     
     private List<Player> players;
     private List<String> teamNames;
     private ScoreScale scoreScale;
+    private Map<String, String> pins = Map.of();
+    private List<List<String>> together = List.of();
+    private List<List<String>> apart = List.of();
+    private Map<String, List<String>> tags = Map.of();
+    private Map<String, Quota> quotas = Map.of();
+    private DrawConstraints constraints;
+    private int version;
     
     public TeamMakerConfig() {
         // Default constructor for Jackson
@@ -20,6 +34,7 @@ public class TeamMakerConfig {
         this.players = players;
         this.teamNames = teamNames;
         this.scoreScale = scoreScale;
+        changed();
     }
     
     public List<Player> getPlayers() {
@@ -28,6 +43,7 @@ public class TeamMakerConfig {
     
     public void setPlayers(List<Player> players) {
         this.players = players;
+        changed();
     }
     
     public List<String> getTeamNames() {
@@ -36,6 +52,7 @@ public class TeamMakerConfig {
     
     public void setTeamNames(List<String> teamNames) {
         this.teamNames = teamNames;
+        changed();
     }
     
     public ScoreScale getScoreScale() {
@@ -46,6 +63,141 @@ public class TeamMakerConfig {
         this.scoreScale = scoreScale;
     }
     
+    /**
+     * Players pinned to a team. Pinned players always land on their team, and
+     * the engines only draw the remaining places.
+     * 
+     * @return team name of every pinned player, by player name; never null
+     */
+    public Map<String, String> getPins() {
+        return pins;
+    }
+    
+    public void setPins(Map<String, String> pins) {
+        this.pins = pins != null ? Collections.unmodifiableMap(new LinkedHashMap<>(pins)) : Map.of();
+        changed();
+    }
+    
+    /**
+     * Groups of players who must play on the same team, such as friends.
+     * Groups that share a player are merged.
+     * 
+     * @return the groups, by player name; never null
+     */
+    public List<List<String>> getTogether() {
+        return together;
+    }
+    
+    public void setTogether(List<List<String>> together) {
+        this.together = copyGroups(together);
+        changed();
+    }
+    
+    /**
+     * Groups of players who must all play on different teams, such as rivals.
+     * 
+     * @return the groups, by player name; never null
+     */
+    public List<List<String>> getApart() {
+        return apart;
+    }
+    
+    public void setApart(List<List<String>> apart) {
+        this.apart = copyGroups(apart);
+        changed();
+    }
+    
+    /**
+     * Categories of players, such as age groups. Tags only constrain the
+     * draw when they have a {@linkplain #getQuotas() quota}.
+     * 
+     * @return the player names of every tag, by tag; never null
+     */
+    public Map<String, List<String>> getTags() {
+        return tags;
+    }
+    
+    public void setTags(Map<String, List<String>> tags) {
+        changed();
+        if (tags == null) {
+            this.tags = Map.of();
+            return;
+        }
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        tags.forEach((tag, names) -> copy.put(tag, names != null ? List.copyOf(names) : List.of()));
+        this.tags = Collections.unmodifiableMap(copy);
+    }
+    
+    /**
+     * How many players of a tag every team must have.
+     * 
+     * @return the quota of every constrained tag, by tag; never null
+     */
+    public Map<String, Quota> getQuotas() {
+        return quotas;
+    }
+    
+    public void setQuotas(Map<String, Quota> quotas) {
+        this.quotas = quotas != null ? Collections.unmodifiableMap(new LinkedHashMap<>(quotas)) : Map.of();
+        changed();
+    }
+    
+    /**
+     * @return true if some players are not free to go to any team
+     */
+    public boolean hasConstraints() {
+        return !pins.isEmpty() || !together.isEmpty() || !apart.isEmpty() || !quotas.isEmpty();
+    }
+    
+    /**
+     * Resolve the constraints against the roster. The result is kept until a
+     * setter changes the configuration, so loading, validating and drawing
+     * resolve them only once.
+     * 
+     * @return the resolved constraints
+     * @throws IllegalArgumentException if a constraint names an unknown player
+     *                                  or team, or cannot be satisfied
+     */
+    DrawConstraints constraints() {
+        if (constraints == null) {
+            constraints = DrawConstraints.of(this);
+        }
+        return constraints;
+    }
+    
+    /**
+     * @return a number that changes whenever a setter changes the
+     *         configuration, so drawers can tell when to recompile
+     */
+    int version() {
+        return version;
+    }
+    
+    private void changed() {
+        constraints = null;
+        version++;
+    }
+    
+    private static List<List<String>> copyGroups(List<List<String>> groups) {
+        if (groups == null) {
+            return List.of();
+        }
+        List<List<String>> copy = new ArrayList<>(groups.size());
+        for (List<String> group : groups) {
+            copy.add(group != null ? List.copyOf(group) : List.of());
+        }
+        return List.copyOf(copy);
+    }
+    
+    /**
+     * Fixed-point scale used for this configuration's scores.
+     * 
+     * @return the score scale's fixed-point scale, or the default when no scale is set
+     */
+    public FixedPointScale fixedPointScale() {
+        return scoreScale != null ? scoreScale.fixedPointScale() : FixedPointScale.DEFAULT;
+    }
+    
     /**
      * Calculate players per team based on total players and number of teams.
      * 
@@ -93,15 +245,83 @@ public class TeamMakerConfig {
                 throw new IllegalArgumentException("Score scale minimum must be less than maximum");
             }
             
+            // Throws if the precision is out of range
+            scoreScale.fixedPointScale();
+            
             // Validate all player scores are within the scale
-            for (Player player : players) {
-                if (!scoreScale.isValidScore(player.score())) {
-                    throw new IllegalArgumentException(
-                        String.format("Player %s has score %.1f which is outside the valid range [%.1f, %.1f]",
-                                    player.name(), player.score(), scoreScale.getMin(), scoreScale.getMax()));
+            if (players instanceof OffHeapRoster offHeap) {
+                // Read the score column instead of materializing every player
+                for (int i = 0; i < offHeap.size(); i++) {
+                    if (!scoreScale.isValidScore(offHeap.score(i))) {
+                        throw outOfScale(offHeap.name(i), offHeap.score(i));
+                    }
+                }
+            } else {
+                for (Player player : players) {
+                    if (!scoreScale.isValidScore(player.score())) {
+                        throw outOfScale(player.name(), player.score());
+                    }
                 }
             }
         }
+        
+        // Throws if a constraint names an unknown player or team or cannot be met
+        constraints();
+    }
+    
+    private IllegalArgumentException outOfScale(String name, double score) {
+        return new IllegalArgumentException(
+            String.format("Player %s has score %.1f which is outside the valid range [%.1f, %.1f]",
+                        name, score, scoreScale.getMin(), scoreScale.getMax()));
+    }
+    
+    /**
+     * Inner class to represent the number of players of a tag allowed per team.
+     */
+    public static class Quota {
+        private int min;
+        private int max = Integer.MAX_VALUE;
+        
+        public Quota() {
+            // No bounds until set
+        }
+        
+        public Quota(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+        
+        /**
+         * @return the fewest players of the tag every team must have
+         */
+        public int getMin() {
+            return min;
+        }
+        
+        public void setMin(int min) {
+            this.min = min;
+        }
+        
+        /**
+         * @return the most players of the tag any team may have
+         */
+        public int getMax() {
+            return max;
+        }
+        
+        public void setMax(int max) {
+            this.max = max;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Quota other && min == other.min && max == other.max;
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * min + max;
+        }
     }
     
     /**
@@ -110,6 +330,7 @@ public class TeamMakerConfig {
     public static class ScoreScale {
         private double min;
         private double max;
+        private int precision = FixedPointScale.DEFAULT_PRECISION;
         
         public ScoreScale() {
             // Default constructor for Jackson
@@ -136,6 +357,27 @@ public class TeamMakerConfig {
             this.max = max;
         }
         
+        /**
+         * @return number of decimal places scores are kept with internally
+         */
+        public int getPrecision() {
+            return precision;
+        }
+        
+        public void setPrecision(int precision) {
+            this.precision = precision;
+        }
+        
+        /**
+         * Fixed-point scale derived from this score scale's precision.
+         * 
+         * @return the fixed-point scale
+         * @throws IllegalArgumentException if the precision is out of range
+         */
+        public FixedPointScale fixedPointScale() {
+            return FixedPointScale.of(precision);
+        }
+        
         /**
          * Validate if a score is within the allowed range.
          * 
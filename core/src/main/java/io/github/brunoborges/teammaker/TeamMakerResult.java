@@ -1,25 +1,96 @@
 package io.github.brunoborges.teammaker;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Result object containing the generated teams and balance information.
+ * <p>
+ * Results produced by the engine are backed by a {@link CompactAssignment};
+ * their {@link Team} objects are only materialized the first time
+ * {@link #getTeams()} is called.
  */
 public class TeamMakerResult {
-    private final List<Team> teams;
+    private volatile List<Team> teams;
     private final boolean balanced;
     private final double minimumStrength;
     private final double maximumStrength;
+    private final TeamStatistics statistics;
+    private final CompactAssignment assignment;
+    private final List<Player> roster;
 
     public TeamMakerResult(List<Team> teams, boolean balanced, double minimumStrength, double maximumStrength) {
         this.teams = teams;
         this.balanced = balanced;
         this.minimumStrength = minimumStrength;
         this.maximumStrength = maximumStrength;
+        this.statistics = TeamStatistics.of(teams != null ? teams : List.of());
+        this.assignment = null;
+        this.roster = null;
+    }
+
+    /**
+     * Creates a result from statistics computed while the teams were assembled.
+     * 
+     * @param teams      the teams
+     * @param balanced   whether the teams are balanced
+     * @param statistics statistics of the teams, in the same order
+     */
+    public TeamMakerResult(List<Team> teams, boolean balanced, TeamStatistics statistics) {
+        this.teams = teams;
+        this.balanced = balanced;
+        this.minimumStrength = statistics.getMinimum();
+        this.maximumStrength = statistics.getMaximum();
+        this.statistics = statistics;
+        this.assignment = null;
+        this.roster = null;
+    }
+
+    /**
+     * Creates a result backed by a compact assignment. Teams are built from the
+     * roster only when {@link #getTeams()} is first called.
+     * 
+     * @param assignment team index of every roster player and team strengths
+     * @param roster     the players the assignment refers to, by index
+     * @param balanced   whether the teams are balanced
+     * @param statistics statistics of the teams, in assignment team order
+     */
+    public TeamMakerResult(CompactAssignment assignment, List<Player> roster, boolean balanced,
+            TeamStatistics statistics) {
+        if (assignment.getPlayerCount() != roster.size()) {
+            throw new IllegalArgumentException(
+                String.format("Assignment covers %d players but the roster has %d",
+                            assignment.getPlayerCount(), roster.size()));
+        }
+        this.teams = null;
+        this.balanced = balanced;
+        this.minimumStrength = statistics.getMinimum();
+        this.maximumStrength = statistics.getMaximum();
+        this.statistics = statistics;
+        this.assignment = assignment;
+        this.roster = roster;
     }
 
     public List<Team> getTeams() {
-        return teams;
+        List<Team> result = teams;
+        if (result == null && assignment != null) {
+            synchronized (this) {
+                result = teams;
+                if (result == null) {
+                    result = materializeTeams();
+                    teams = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the compact form of this result, or {@code null} if the result
+     *         was built from teams directly
+     */
+    public CompactAssignment getAssignment() {
+        return assignment;
     }
 
     public boolean isBalanced() {
@@ -33,4 +104,27 @@ public class TeamMakerResult {
     public double getMaximumStrength() {
         return maximumStrength;
     }
+
+    /**
+     * @return statistics of the team strengths, computed once for this result
+     */
+    public TeamStatistics getStatistics() {
+        return statistics;
+    }
+
+    private List<Team> materializeTeams() {
+        int teamCount = assignment.getTeamCount();
+        int playersPerTeam = teamCount == 0 ? 0 : roster.size() / teamCount;
+        List<Team> built = new ArrayList<>(teamCount);
+        for (int t = 0; t < teamCount; t++) {
+            built.add(new Team(assignment.teamName(t), playersPerTeam, statistics.getScale()));
+        }
+        for (int i = 0; i < roster.size(); i++) {
+            built.get(assignment.teamOf(i)).add(roster.get(i));
+        }
+        for (Team team : built) {
+            team.seal();
+        }
+        return List.copyOf(built);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,479 @@
+package io.github.brunoborges.teammaker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repairs an existing draw after the roster changed, instead of redrawing.
+ * <p>
+ * Departed players leave their teams, arrivals fill the vacancies weakest team
+ * first, and rescored players stay where they are. Balance is then restored by
+ * swapping pairs of players between the strongest or weakest team and the
+ * teams the change touched. Everyone else keeps their team, and pinned players
+ * are never moved. Swaps do not know about players who must play together or
+ * apart or about tag quotas; draws with such constraints should be redrawn
+ * instead.
+ * <p>
+ * Swapping is a greedy heuristic, not a search for the fewest moves: each
+ * step takes a swap that balances all teams at once if there is one, and
+ * otherwise the swap that brings its two teams closest together, until the
+ * teams are balanced or a budget of {@value #MOVES_PER_CHANGE} swaps per
+ * changed player runs out. It finds the single swap whenever one suffices,
+ * but may use more swaps than necessary, or give up, when several are needed.
+ * <p>
+ * A repair object indexes the previous teams once. With {@code T} teams of
+ * {@code k} players, each changed player is found in {@code O(k)}, each swap
+ * step costs {@code O(T + a k log k)} for the {@code a} teams it considers
+ * (those touched by the change plus the strongest and weakest), and each
+ * player moved to even out team sizes costs {@code O(T + k)}. An
+ * {@link #apply} therefore depends on the size of the change, the number of
+ * teams and the size of the touched teams, not on the size of the whole
+ * roster, so an object can follow a roster through a series of edits. Only
+ * {@link #toResult()} walks the whole roster.
+ * <p>
+ * A repair object is not thread-safe.
+ */
+public final class TeamRepair {
+
+    /**
+     * Swaps allowed per changed player before a repair gives up on balance.
+     */
+    static final int MOVES_PER_CHANGE = 4;
+
+    private final FixedPointScale scale;
+    private final List<String> teamNames;
+    private final List<List<Player>> members;
+    private final long[] sums;
+    private final Set<String> pinned;
+    private final Map<String, List<Integer>> teamsByName = new HashMap<>();
+    private final boolean[] affected;
+    private int playerCount;
+    private int lastMoves;
+
+    /**
+     * Index the teams of a previous result.
+     *
+     * @param previous the result to repair
+     * @throws IllegalArgumentException if the result has no teams
+     */
+    public TeamRepair(TeamMakerResult previous) {
+        this(previous, Set.of());
+    }
+
+    /**
+     * Index the teams of a previous result drawn with pins.
+     *
+     * @param previous the result to repair
+     * @param pinned   names of the players that must stay on their team
+     * @throws IllegalArgumentException if the result has no teams
+     */
+    public TeamRepair(TeamMakerResult previous, Set<String> pinned) {
+        this.pinned = Set.copyOf(pinned);
+        List<Team> teams = previous.getTeams();
+        if (teams == null || teams.isEmpty()) {
+            throw new IllegalArgumentException("Cannot repair a result without teams");
+        }
+        this.scale = previous.getStatistics().getScale();
+        this.teamNames = new ArrayList<>(teams.size());
+        this.members = new ArrayList<>(teams.size());
+        this.sums = new long[teams.size()];
+        this.affected = new boolean[teams.size()];
+        for (int t = 0; t < teams.size(); t++) {
+            Team team = teams.get(t);
+            teamNames.add(team.getName());
+            members.add(new ArrayList<>(team.getPlayers()));
+            for (Player player : team.getPlayers()) {
+                sums[t] += scale.toFixed(player.score());
+                index(player.name(), t);
+            }
+            playerCount += team.getPlayers().size();
+        }
+    }
+
+    /**
+     * Repair a result once.
+     *
+     * @param previous the result to repair
+     * @param delta    the changes made to its roster since it was drawn
+     * @return the repaired result
+     * @throws IllegalArgumentException if the delta does not fit the result
+     */
+    public static TeamMakerResult repair(TeamMakerResult previous, RosterDelta delta) {
+        TeamRepair repair = new TeamRepair(previous);
+        repair.apply(delta);
+        return repair.toResult();
+    }
+
+    /**
+     * Apply roster changes to the teams and restore balance.
+     *
+     * @param delta the changes made to the roster since the last repair
+     * @return true if the teams are balanced afterwards
+     * @throws IllegalArgumentException if a removed or rescored player is not
+     *                                  in the teams, or the new roster cannot
+     *                                  be split evenly, both checked before
+     *                                  any team changes; or if pinned players
+     *                                  no longer fit their team
+     */
+    public boolean apply(RosterDelta delta) {
+        int newCount = playerCount + delta.getAdded().size() - delta.getRemoved().size();
+        if (newCount <= 0 || newCount % sums.length != 0) {
+            throw new IllegalArgumentException(newCount + " players cannot be split evenly into "
+                    + sums.length + " teams");
+        }
+        // Find every player to change before changing any, so a delta that
+        // does not fit leaves the teams as they were
+        Set<Long> claimed = new HashSet<>();
+        long[] rescoredSlots = claim(delta.getReplaced(), claimed);
+        long[] removedSlots = claim(delta.getRemoved(), claimed);
+        Arrays.fill(affected, false);
+        lastMoves = 0;
+
+        for (int i = 0; i < rescoredSlots.length; i++) {
+            Player player = delta.getRescored().get(i);
+            int team = teamOf(rescoredSlots[i]);
+            List<Player> players = members.get(team);
+            int position = positionOf(rescoredSlots[i]);
+            sums[team] += scale.toFixed(player.score()) - scale.toFixed(players.get(position).score());
+            players.set(position, player);
+            affected[team] = true;
+        }
+        // Remove from the back of each team so the other claimed positions stay valid
+        Arrays.sort(removedSlots);
+        for (int i = removedSlots.length - 1; i >= 0; i--) {
+            int team = teamOf(removedSlots[i]);
+            Player player = members.get(team).remove(positionOf(removedSlots[i]));
+            sums[team] -= scale.toFixed(player.score());
+            teamsByName.get(player.name()).remove(Integer.valueOf(team));
+            affected[team] = true;
+        }
+        playerCount = newCount;
+        int teamSize = newCount / sums.length;
+
+        List<Player> arrivals = new ArrayList<>(delta.getAdded());
+        arrivals.sort((a, b) -> Double.compare(b.score(), a.score()));
+        for (Player player : arrivals) {
+            int team = weakest(teamSize);
+            members.get(team).add(player);
+            sums[team] += scale.toFixed(player.score());
+            index(player.name(), team);
+            affected[team] = true;
+        }
+        evenOut(teamSize);
+
+        int budget = MOVES_PER_CHANGE * (delta.getAdded().size() + delta.getRemoved().size()
+                + delta.getRescored().size() + 1);
+        while (!isBalanced() && lastMoves < budget && swap()) {
+            lastMoves++;
+        }
+        return isBalanced();
+    }
+
+    /**
+     * @return the number of players moved by the last {@link #apply}, counting
+     *         a swap as one move
+     */
+    public int getLastMoves() {
+        return lastMoves;
+    }
+
+    /**
+     * @return true if the current teams are balanced
+     */
+    public boolean isBalanced() {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long sum : sums) {
+            min = Math.min(min, sum);
+            max = Math.max(max, sum);
+        }
+        return TeamMaker.isBalanced(min, max);
+    }
+
+    /**
+     * Copy the current teams into a result. This takes linear time.
+     *
+     * @return the result, with teams in their original order
+     */
+    public TeamMakerResult toResult() {
+        List<Player> roster = new ArrayList<>(playerCount);
+        int[] teamOf = new int[playerCount];
+        double[] teamSums = new double[sums.length];
+        for (int t = 0; t < sums.length; t++) {
+            for (Player player : members.get(t)) {
+                teamOf[roster.size()] = t;
+                roster.add(player);
+            }
+            teamSums[t] = scale.toDouble(sums[t]);
+        }
+        return new TeamMakerResult(new CompactAssignment(teamOf, teamSums, teamNames), List.copyOf(roster),
+                isBalanced(), TeamStatistics.of(sums.clone(), scale));
+    }
+
+    /**
+     * Move players off teams that lost fewer players than the others, when
+     * departures left the team sizes uneven. Each player moved is the one
+     * that brings the two teams closest together.
+     */
+    private void evenOut(int teamSize) {
+        for (int from = 0; from < sums.length; from++) {
+            List<Player> source = members.get(from);
+            while (source.size() > teamSize) {
+                int to = weakest(teamSize);
+                long gap = sums[from] - sums[to];
+                int best = -1;
+                long bestDistance = Long.MAX_VALUE;
+                for (int i = 0; i < source.size(); i++) {
+                    if (pinned.contains(source.get(i).name())) {
+                        continue;
+                    }
+                    long distance = Math.abs(gap - 2 * scale.toFixed(source.get(i).score()));
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = i;
+                    }
+                }
+                if (best < 0) {
+                    throw new IllegalArgumentException("Team " + teamNames.get(from)
+                            + " has more pinned players than places");
+                }
+                move(source.remove(best), from, to);
+                lastMoves++;
+            }
+        }
+    }
+
+    private void move(Player player, int from, int to) {
+        long score = scale.toFixed(player.score());
+        members.get(to).add(player);
+        sums[from] -= score;
+        sums[to] += score;
+        teamsByName.get(player.name()).remove(Integer.valueOf(from));
+        index(player.name(), to);
+        affected[from] = true;
+        affected[to] = true;
+    }
+
+    /**
+     * Perform one swap between the strongest or the weakest team and one of
+     * the teams touched by this repair. A swap of strength {@code d} between
+     * teams of strengths {@code a > b} shrinks the sum of squared deviations
+     * by {@code 2d(a - b - d)}. A swap that leaves all teams balanced wins;
+     * otherwise the largest such gain does.
+     * <p>
+     * The gain is largest for {@code d} closest to {@code (a - b) / 2}, so for
+     * each player of the stronger team only the two players of the weaker
+     * team whose scores surround that target are candidates, found by binary
+     * search in the weaker team's sorted scores.
+     *
+     * @return false if no swap improves the teams
+     */
+    private boolean swap() {
+        int[] extremes = extremes();
+        int strongest = extremes[0];
+        int weakest = extremes[3];
+        Swap best = new Swap();
+        for (int other = 0; other < sums.length; other++) {
+            if (!affected[other] && other != weakest && other != strongest) {
+                continue;
+            }
+            if (other != strongest) {
+                consider(strongest, other, extremes, best);
+            }
+            if (other != weakest && other != strongest) {
+                consider(other, weakest, extremes, best);
+            }
+        }
+        if (best.high < 0) {
+            return false;
+        }
+        Player up = members.get(best.low).remove(positionOf(members.get(best.low), best.score));
+        Player down = members.get(best.high).remove(best.from);
+        move(down, best.high, best.low);
+        move(up, best.low, best.high);
+        return true;
+    }
+
+    /**
+     * Find the best swap from a stronger to a weaker team and keep it if it
+     * beats the best swap found so far.
+     */
+    private void consider(int high, int low, int[] extremes, Swap best) {
+        long gap = sums[high] - sums[low];
+        if (gap <= 0) {
+            return;
+        }
+        List<Player> lowPlayers = members.get(low);
+        long[] lowScores = new long[lowPlayers.size()];
+        int count = 0;
+        for (Player player : lowPlayers) {
+            if (!pinned.contains(player.name())) {
+                lowScores[count++] = scale.toFixed(player.score());
+            }
+        }
+        Arrays.sort(lowScores, 0, count);
+        List<Player> highPlayers = members.get(high);
+        for (int i = 0; i < highPlayers.size(); i++) {
+            if (pinned.contains(highPlayers.get(i).name())) {
+                continue;
+            }
+            long h = scale.toFixed(highPlayers.get(i).score());
+            int next = Arrays.binarySearch(lowScores, 0, count, h - gap / 2);
+            next = next >= 0 ? next : -next - 1;
+            for (int c = Math.max(0, next - 1); c <= Math.min(count - 1, next); c++) {
+                long d = h - lowScores[c];
+                if (d <= 0 || d >= gap) {
+                    continue;
+                }
+                long gain = d * (gap - d);
+                boolean balances = balancedAfter(high, low, d, extremes);
+                if (best.balances ? balances && gain > best.gain : balances || gain > best.gain) {
+                    best.gain = gain;
+                    best.balances = balances;
+                    best.high = high;
+                    best.low = low;
+                    best.from = i;
+                    best.score = lowScores[c];
+                }
+            }
+        }
+    }
+
+    /**
+     * @param extremes see {@link #extremes()}
+     * @return true if all teams are balanced once strength {@code d} moves
+     *         from team {@code high} to team {@code low}
+     */
+    private boolean balancedAfter(int high, int low, long d, int[] extremes) {
+        long max = Math.max(sums[high] - d, sums[low] + d);
+        long min = Math.min(sums[high] - d, sums[low] + d);
+        for (int k = 0; k < 3; k++) {
+            int t = extremes[k];
+            if (t >= 0 && t != high && t != low) {
+                max = Math.max(max, sums[t]);
+                break;
+            }
+        }
+        for (int k = 3; k < 6; k++) {
+            int t = extremes[k];
+            if (t >= 0 && t != high && t != low) {
+                min = Math.min(min, sums[t]);
+                break;
+            }
+        }
+        return TeamMaker.isBalanced(min, max);
+    }
+
+    /**
+     * @return the three strongest teams, strongest first, followed by the
+     *         three weakest, weakest first; -1 where there are fewer teams
+     */
+    private int[] extremes() {
+        int[] extremes = {-1, -1, -1, -1, -1, -1};
+        for (int t = 0; t < sums.length; t++) {
+            rank(extremes, 0, t, 1);
+            rank(extremes, 3, t, -1);
+        }
+        return extremes;
+    }
+
+    private void rank(int[] extremes, int offset, int team, int sign) {
+        for (int k = offset; k < offset + 3; k++) {
+            if (extremes[k] < 0 || Long.signum(sums[team] - sums[extremes[k]]) == sign) {
+                System.arraycopy(extremes, k, extremes, k + 1, offset + 2 - k);
+                extremes[k] = team;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Best swap found so far.
+     */
+    private static final class Swap {
+        long gain;
+        boolean balances;
+        int high = -1;
+        int low = -1;
+        int from = -1;
+        long score;
+    }
+
+    /**
+     * @param teamSize the size every team must reach
+     * @return the weakest team with a vacancy
+     */
+    private int weakest(int teamSize) {
+        int best = -1;
+        for (int t = 0; t < sums.length; t++) {
+            if (members.get(t).size() < teamSize && (best < 0 || sums[t] < sums[best])) {
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Find each player in the teams, never claiming the same place twice.
+     *
+     * @param players the exact players to find
+     * @param claimed places already claimed, updated with the places found
+     * @return the place of every player, as team and position packed by
+     *         {@link #slot(int, int)}
+     * @throws IllegalArgumentException if a player is not in the teams
+     */
+    private long[] claim(List<Player> players, Set<Long> claimed) {
+        long[] slots = new long[players.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = claim(players.get(i), claimed);
+        }
+        return slots;
+    }
+
+    private long claim(Player player, Set<Long> claimed) {
+        for (int team : teamsByName.getOrDefault(player.name(), List.of())) {
+            List<Player> players = members.get(team);
+            for (int position = 0; position < players.size(); position++) {
+                if (players.get(position).equals(player) && claimed.add(slot(team, position))) {
+                    return slot(team, position);
+                }
+            }
+        }
+        throw new IllegalArgumentException("No player " + player + " in the teams");
+    }
+
+    private static long slot(int team, int position) {
+        return (long) team << Integer.SIZE | position;
+    }
+
+    private static int teamOf(long slot) {
+        return (int) (slot >>> Integer.SIZE);
+    }
+
+    private static int positionOf(long slot) {
+        return (int) slot;
+    }
+
+    /**
+     * @return the position of the first player that is not pinned and has
+     *         the given fixed-point score
+     */
+    private int positionOf(List<Player> players, long score) {
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            if (scale.toFixed(player.score()) == score && !pinned.contains(player.name())) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No movable player with score " + scale.toDouble(score));
+    }
+
+    private void index(String name, int team) {
+        teamsByName.computeIfAbsent(name, key -> new ArrayList<>(1)).add(team);
+    }
+}
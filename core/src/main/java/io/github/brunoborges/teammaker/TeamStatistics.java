@@ -0,0 +1,151 @@
+package io.github.brunoborges.teammaker;
+
+import java.util.List;
+
+/**
+ * Summary statistics of team strengths, computed once when a result is assembled.
+ * <p>
+ * Sum, minimum and maximum are accumulated exactly in fixed point; mean,
+ * variance and z-scores are derived from them. Consumers such as formatters
+ * read these values instead of re-streaming the teams.
+ */
+public final class TeamStatistics {
+
+    private final int teamCount;
+    private final FixedPointScale scale;
+    private final long fixedSum;
+    private final long fixedMinimum;
+    private final long fixedMaximum;
+    private final double mean;
+    private final double variance;
+    private final double[] zScores;
+
+    private TeamStatistics(long[] fixedScores, FixedPointScale scale) {
+        this.teamCount = fixedScores.length;
+        this.scale = scale;
+
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long score : fixedScores) {
+            sum += score;
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+        this.fixedSum = sum;
+        this.fixedMinimum = teamCount == 0 ? 0 : min;
+        this.fixedMaximum = teamCount == 0 ? 0 : max;
+        this.mean = teamCount == 0 ? 0 : scale.toDouble(sum) / teamCount;
+
+        double squares = 0;
+        for (long score : fixedScores) {
+            double deviation = scale.toDouble(score) - mean;
+            squares += deviation * deviation;
+        }
+        this.variance = teamCount == 0 ? 0 : squares / teamCount;
+
+        double deviation = Math.sqrt(variance);
+        this.zScores = new double[teamCount];
+        for (int i = 0; i < teamCount; i++) {
+            zScores[i] = deviation == 0 ? 0 : (scale.toDouble(fixedScores[i]) - mean) / deviation;
+        }
+    }
+
+    /**
+     * Compute statistics for a list of teams.
+     *
+     * @param teams the teams, in result order
+     * @return the statistics; z-scores follow the order of the list
+     */
+    public static TeamStatistics of(List<Team> teams) {
+        long[] fixedScores = new long[teams.size()];
+        for (int i = 0; i < fixedScores.length; i++) {
+            fixedScores[i] = teams.get(i).getFixedScore();
+        }
+        FixedPointScale scale = teams.isEmpty() ? FixedPointScale.DEFAULT : teams.get(0).getScale();
+        return new TeamStatistics(fixedScores, scale);
+    }
+
+    /**
+     * Compute statistics for fixed-point team strengths.
+     *
+     * @param fixedScores team strengths in fixed point
+     * @param scale       the scale of the strengths
+     * @return the statistics; z-scores follow the order of the array
+     */
+    static TeamStatistics of(long[] fixedScores, FixedPointScale scale) {
+        return new TeamStatistics(fixedScores, scale);
+    }
+
+    public int getTeamCount() {
+        return teamCount;
+    }
+
+    /**
+     * @return sum of all team strengths
+     */
+    public double getSum() {
+        return scale.toDouble(fixedSum);
+    }
+
+    /**
+     * @return average team strength
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return population variance of the team strengths
+     */
+    public double getVariance() {
+        return variance;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    public double getMinimum() {
+        return scale.toDouble(fixedMinimum);
+    }
+
+    public double getMaximum() {
+        return scale.toDouble(fixedMaximum);
+    }
+
+    /**
+     * @return difference between the strongest and the weakest team
+     */
+    public double getSpread() {
+        return scale.toDouble(fixedMaximum - fixedMinimum);
+    }
+
+    /**
+     * @return weakest team strength divided by strongest team strength, or 1
+     *         when the strongest team has no strength at all
+     */
+    public double getRatio() {
+        return fixedMaximum == 0 ? 1.0 : (double) fixedMinimum / fixedMaximum;
+    }
+
+    /**
+     * @param teamIndex position of the team in the result
+     * @return how many standard deviations the team is away from the mean
+     */
+    public double getZScore(int teamIndex) {
+        return zScores[teamIndex];
+    }
+
+    FixedPointScale getScale() {
+        return scale;
+    }
+
+    long getFixedMinimum() {
+        return fixedMinimum;
+    }
+
+    long getFixedMaximum() {
+        return fixedMaximum;
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+@DisplayName("BinaryConfigLoader Tests")
+class BinaryConfigLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should round-trip a configuration through the binary format")
+    void shouldRoundTripConfigurationThroughBinaryFormat() throws IOException {
+        // Given
+        TeamMakerConfig.ScoreScale scale = new TeamMakerConfig.ScoreScale(1.0, 5.0);
+        scale.setPrecision(2);
+        TeamMakerConfig config = new TeamMakerConfig(
+                List.of(new Player("Ana", 4.25), new Player("Bea", 2.0), new Player("Ana", 3.5), new Player("Çaio", 1.0)),
+                List.of("Azul", "Vermelho"), scale);
+        Path file = tempDir.resolve("roster.tmr");
+
+        // When
+        BinaryConfigLoader.saveToFile(config, file);
+        TeamMakerConfig loaded = BinaryConfigLoader.loadFromFile(file);
+
+        // Then
+        assertTrue(BinaryConfigLoader.isBinary(file));
+        assertEquals(config.getPlayers(), loaded.getPlayers());
+        assertEquals(List.of("Azul", "Vermelho"), loaded.getTeamNames());
+        assertEquals(1.0, loaded.getScoreScale().getMin());
+        assertEquals(5.0, loaded.getScoreScale().getMax());
+        assertEquals(2, loaded.getScoreScale().getPrecision());
+        OffHeapRoster roster = assertInstanceOf(OffHeapRoster.class, loaded.getPlayers());
+        assertEquals(3, roster.nameCount());
+        assertEquals(425, roster.fixedScore(0));
+    }
+
+    @Test
+    @DisplayName("Should load either format through JsonConfigLoader")
+    void shouldLoadEitherFormatThroughJsonConfigLoader() throws IOException {
+        // Given
+        TeamMakerConfig json = JsonConfigLoader.loadFromResource("team-config.json");
+        Path binaryFile = tempDir.resolve("team-config.tmr");
+        Path jsonFile = tempDir.resolve("team-config.json");
+        BinaryConfigLoader.saveToFile(json, binaryFile);
+        JsonConfigLoader.saveToFile(json, jsonFile);
+
+        // When
+        TeamMakerConfig fromBinary = JsonConfigLoader.loadFromFile(binaryFile);
+        TeamMakerConfig fromJson = JsonConfigLoader.loadFromFile(jsonFile);
+
+        // Then
+        assertFalse(BinaryConfigLoader.isBinary(jsonFile));
+        assertEquals(fromJson.getPlayers(), fromBinary.getPlayers());
+        assertEquals(fromJson.getTeamNames(), fromBinary.getTeamNames());
+        assertEquals(10, TeamMaker.createBalancedTeamsFromConfig(binaryFile.toString()).getTeams().size());
+    }
+
+    @Test
+    @DisplayName("Should save a mapped configuration back to its own file")
+    void shouldSaveAMappedConfigurationBackToItsOwnFile() throws IOException {
+        // Given
+        Path file = tempDir.resolve("roster.tmr");
+        BinaryConfigLoader.saveToFile(JsonConfigLoader.loadFromResource("team-config.json"), file);
+        TeamMakerConfig mapped = BinaryConfigLoader.loadFromFile(file);
+        List<Player> expected = List.copyOf(mapped.getPlayers());
+
+        // When
+        BinaryConfigLoader.saveToFile(mapped, file);
+
+        // Then
+        assertEquals(expected, mapped.getPlayers());
+        assertEquals(expected, BinaryConfigLoader.loadFromFile(file).getPlayers());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject truncated binary files")
+    void shouldRejectTruncatedBinaryFiles() throws IOException {
+        // Given
+        Path file = tempDir.resolve("roster.tmr");
+        BinaryConfigLoader.saveToFile(JsonConfigLoader.loadFromResource("team-config.json"), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        // When & Then
+        IOException e = assertThrows(IOException.class, () -> BinaryConfigLoader.loadFromFile(file));
+        assertTrue(e.getMessage().contains("should be"));
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+@DisplayName("CanonicalRoster Tests")
+class CanonicalRosterTest {
+
+    @Test
+    @DisplayName("Should collapse equal scores into ascending classes")
+    void shouldCollapseEqualScoresIntoAscendingClasses() {
+        // Given
+        List<Player> players = List.of(
+                new Player("A", 4.0), new Player("B", 2.0), new Player("C", 4.0),
+                new Player("D", 3.0), new Player("E", 2.0), new Player("F", 4.0));
+
+        // When
+        CanonicalRoster roster = CanonicalRoster.of(players, 2);
+
+        // Then
+        assertEquals(3, roster.classCount());
+        assertEquals(2.0, roster.classScore(0));
+        assertEquals(3.0, roster.classScore(1));
+        assertEquals(4.0, roster.classScore(2));
+        assertEquals(2, roster.classSize(0));
+        assertEquals(1, roster.classSize(1));
+        assertEquals(3, roster.classSize(2));
+        assertEquals(3, roster.playersPerTeam());
+        assertEquals(2, roster.classOf(0));
+        assertEquals("D", roster.player(roster.member(1, 0)).name());
+    }
+
+    @Test
+    @DisplayName("Should hash independently of names and order")
+    void shouldHashIndependentlyOfNamesAndOrder() {
+        // Given
+        List<Player> players = new ArrayList<>(DefaultPlayers.get());
+        List<Player> renamed = new ArrayList<>();
+        for (Player p : players) {
+            renamed.add(new Player(p.name() + " Jr.", p.score()));
+        }
+        Collections.shuffle(renamed, new Random(7));
+
+        // When
+        CanonicalRoster original = CanonicalRoster.of(players, 10);
+        CanonicalRoster other = CanonicalRoster.of(renamed, 10);
+
+        // Then
+        assertEquals(original.canonicalHash(), other.canonicalHash());
+        assertTrue(original.hasSameShape(other));
+        assertNotEquals(original.canonicalHash(), CanonicalRoster.of(players, 5).canonicalHash());
+    }
+
+    @Test
+    @DisplayName("Should round-trip a solution through canonical form")
+    void shouldRoundTripSolutionThroughCanonicalForm() {
+        // Given
+        List<Player> players = DefaultPlayers.get();
+        CanonicalRoster roster = CanonicalRoster.of(players, 4);
+        int[] teamOf = new int[players.size()];
+        for (int i = 0; i < teamOf.length; i++) {
+            teamOf[i] = i % 4;
+        }
+
+        // When
+        int[][] solution = roster.canonicalize(teamOf);
+        int[] expanded = roster.expand(solution, new Random(42));
+
+        // Then
+        assertArrayEquals(solution, roster.canonicalize(expanded));
+        int[] sizes = new int[4];
+        for (int team : expanded) {
+            sizes[team]++;
+        }
+        assertArrayEquals(new int[] {5, 5, 5, 5}, sizes);
+    }
+
+    @Test
+    @DisplayName("Should reject rosters that cannot be split evenly")
+    void shouldRejectRostersThatCannotBeSplitEvenly() {
+        // Given
+        List<Player> players = List.of(new Player("A", 1.0), new Player("B", 2.0), new Player("C", 3.0));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> CanonicalRoster.of(players, 2));
+    }
+
+    @Test
+    @DisplayName("Should sort negative and fractional scores")
+    void shouldSortNegativeAndFractionalScores() {
+        // Given
+        List<Player> players = List.of(
+                new Player("A", 1.5), new Player("B", -2.0), new Player("C", 300.25), new Player("D", 0.0));
+
+        // When
+        CanonicalRoster roster = CanonicalRoster.of(players, 2);
+
+        // Then
+        assertEquals(-2.0, roster.classScore(0));
+        assertEquals(0.0, roster.classScore(1));
+        assertEquals(1.5, roster.classScore(2));
+        assertEquals(300.25, roster.classScore(3));
+        assertEquals(300250, roster.classFixedScore(3));
+        assertEquals(3, roster.classIndex(300.25));
+        assertEquals(-1, roster.classIndex(4.0));
+    }
+}
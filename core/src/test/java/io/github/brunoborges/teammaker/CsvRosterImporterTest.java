@@ -0,0 +1,90 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@DisplayName("CsvRosterImporter Tests")
+class CsvRosterImporterTest {
+
+    @Test
+    @DisplayName("Should import quoted CSV rows by header name")
+    void shouldImportQuotedCsvRowsByHeaderName() throws IOException {
+        // Given
+        String csv = "\uFEFFid,Full Name,Rating\r\n"
+                + "1,\"Silva, Ana\",4.5\r\n"
+                + "2,\"Bea \"\"B\"\" Costa\",3\r\n"
+                + "\r\n"
+                + "3,\"Caio\nJr.\",2\r\n"
+                + "4,Duda,5";
+
+        // When
+        TeamMakerConfig config = CsvRosterImporter.csv()
+                .withNameColumn("full name")
+                .withScoreColumn("rating")
+                .withTeamNames(List.of("Red", "Blue"))
+                .importFrom(new StringReader(csv));
+
+        // Then
+        List<Player> players = config.getPlayers();
+        assertInstanceOf(OffHeapRoster.class, players);
+        assertEquals(4, players.size());
+        assertEquals(new Player("Silva, Ana", 4.5), players.get(0));
+        assertEquals("Bea \"B\" Costa", players.get(1).name());
+        assertEquals("Caio\nJr.", players.get(2).name());
+        assertEquals(new Player("Duda", 5.0), players.get(3));
+        assertEquals(List.of("Red", "Blue"), config.getTeamNames());
+    }
+
+    @Test
+    @DisplayName("Should import a headerless TSV file by column index")
+    void shouldImportHeaderlessTsvFileByColumnIndex(@TempDir Path tempDir) throws IOException {
+        // Given
+        Path file = tempDir.resolve("roster.tsv");
+        Files.writeString(file, "3\tAna\n4\tBea\n2\tCaio\n5\tDuda\n");
+
+        // When
+        TeamMakerConfig config = CsvRosterImporter.forFile(file)
+                .withoutHeader()
+                .withNameColumn(1)
+                .withScoreColumn(0)
+                .importFrom(file);
+
+        // Then
+        assertEquals(4, config.getPlayers().size());
+        assertEquals(new Player("Caio", 2.0), config.getPlayers().get(2));
+        assertEquals(List.of("Team A", "Team B"), config.getTeamNames());
+        assertEquals(2, TeamMaker.createBalancedTeamsFromConfig(config).getTeams().size());
+    }
+
+    @Test
+    @DisplayName("Should report every invalid row against the score scale")
+    void shouldReportEveryInvalidRowAgainstTheScoreScale() {
+        // Given
+        String csv = "name,score\nAna,9\n,3\nCaio,abc\nDuda\nEva,4\n";
+
+        // When
+        ConfigValidationException e = assertThrows(ConfigValidationException.class,
+                () -> CsvRosterImporter.csv()
+                        .withScoreScale(new TeamMakerConfig.ScoreScale(1.0, 5.0))
+                        .withTeamCount(2)
+                        .importFrom(new StringReader(csv)));
+
+        // Then
+        assertEquals(List.of(
+                "Row 2: Player Ana has score 9.0 which is outside the valid range [1.0, 5.0]",
+                "Row 3: missing name",
+                "Row 4: score 'abc' is not a number",
+                "Row 5: expected at least 2 columns but found 1",
+                "Number of players (5) must be evenly divisible by number of teams (2). "
+                        + "Current division results in 2 players per team with 1 remaining players."),
+                e.getErrors());
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@DisplayName("DrawContext Tests")
+class DrawContextTest {
+
+    @Test
+    @DisplayName("Should draw every player exactly once into complete teams")
+    void shouldDrawEveryPlayerExactlyOnceIntoCompleteTeams() {
+        // Given
+        DrawContext context = new DrawContext(DefaultPlayers.get(), 4);
+
+        // When
+        context.draw();
+        List<Team> teams = context.getTeams();
+
+        // Then
+        assertEquals(5, teams.size());
+        Set<String> names = new HashSet<>();
+        for (Team team : teams) {
+            assertTrue(team.isComplete());
+            team.getPlayers().forEach(p -> names.add(p.name()));
+        }
+        assertEquals(20, names.size());
+    }
+
+    @Test
+    @DisplayName("Should keep results independent of later draws")
+    void shouldKeepResultsIndependentOfLaterDraws() {
+        // Given
+        DrawContext context = new DrawContext(DefaultPlayers.get(), 2);
+        context.draw();
+        TeamMakerResult result = context.toResult();
+        String before = result.getTeams().toString();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            context.draw();
+            context.getTeams();
+        }
+
+        // Then
+        assertEquals(before, result.getTeams().toString());
+        assertEquals(context.getTeams(), context.getTeams());
+    }
+
+    @Test
+    @DisplayName("Should report balance consistent with team strengths")
+    void shouldReportBalanceConsistentWithTeamStrengths() {
+        // Given
+        DrawContext context = new DrawContext(DefaultPlayers.get(), 2);
+
+        // When
+        boolean balanced = context.drawUntilBalanced(100);
+
+        // Then
+        assertTrue(balanced);
+        TeamMakerResult result = context.toResult();
+        assertTrue(result.isBalanced());
+        assertEquals(context.getMinimumStrength(), result.getMinimumStrength(), 0.001);
+        assertEquals(context.getMaximumStrength(), result.getMaximumStrength(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should allocate next to nothing in the steady state")
+    void shouldNotAllocateInTheSteadyState() {
+        // Given
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        DrawContext context = new DrawContext(DefaultPlayers.get(), 2);
+        for (int i = 0; i < 20_000; i++) {
+            drawAndRead(context);
+        }
+
+        // When
+        long before = threads.getCurrentThreadAllocatedBytes();
+        double checksum = 0;
+        for (int i = 0; i < 1_000; i++) {
+            checksum += drawAndRead(context);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // Then: a loose bound, since the exact figure depends on the JIT and
+        // escape analysis; a single object per draw would exceed it
+        assertTrue(checksum > 0);
+        assertTrue(allocated < 8 * 1_000, "Repeated draws allocated " + allocated + " bytes");
+    }
+
+    @Test
+    @DisplayName("Should keep pinned players on their team in every draw")
+    void shouldKeepPinnedPlayersOnTheirTeamInEveryDraw() {
+        // Given
+        List<Player> players = DefaultPlayers.get();
+        List<String> teamNames = List.of("Red", "Blue", "Green", "Gold", "Navy");
+        TeamMakerConfig config = new TeamMakerConfig(players, teamNames, null);
+        config.setPins(Map.of(players.get(0).name(), "Gold", players.get(1).name(), "Gold",
+                players.get(2).name(), "Red"));
+        DrawContext context = new DrawContext(config);
+
+        for (int i = 0; i < 200; i++) {
+            // When
+            context.draw();
+
+            // Then
+            assertEquals(3, context.teamOf(0));
+            assertEquals(3, context.teamOf(1));
+            assertEquals(0, context.teamOf(2));
+            for (Team team : context.getTeams()) {
+                assertTrue(team.isComplete());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject pins that cannot be satisfied")
+    void shouldRejectPinsThatCannotBeSatisfied() {
+        // Given
+        List<Player> players = DefaultPlayers.get();
+        TeamMakerConfig config = new TeamMakerConfig(players, List.of("Red", "Blue", "Green", "Gold", "Navy"), null);
+
+        // When / Then
+        config.setPins(Map.of("Nobody", "Red"));
+        assertThrows(IllegalArgumentException.class, config::validate);
+        config.setPins(Map.of(players.get(0).name(), "Purple"));
+        assertThrows(IllegalArgumentException.class, config::validate);
+        config.setPins(Map.of(players.get(0).name(), "Red", players.get(1).name(), "Red",
+                players.get(2).name(), "Red", players.get(3).name(), "Red", players.get(4).name(), "Red"));
+        IllegalArgumentException overfull = assertThrows(IllegalArgumentException.class, () -> new DrawContext(config));
+        assertTrue(overfull.getMessage().contains("more pinned players than places"));
+    }
+
+    @Test
+    @DisplayName("Should keep friends together and rivals apart in every draw")
+    void shouldKeepFriendsTogetherAndRivalsApartInEveryDraw() {
+        // Given
+        List<Player> players = DefaultPlayers.get();
+        TeamMakerConfig config = new TeamMakerConfig(players, List.of("Red", "Blue", "Green", "Gold", "Navy"), null);
+        String a = players.get(0).name();
+        String b = players.get(1).name();
+        String c = players.get(2).name();
+        String d = players.get(3).name();
+        config.setTogether(List.of(List.of(a, b), List.of(b, c)));
+        config.setApart(List.of(List.of(a, d), List.of(d, players.get(4).name(), players.get(5).name())));
+        config.setPins(Map.of(c, "Navy"));
+        DrawContext context = new DrawContext(config);
+
+        for (int i = 0; i < 200; i++) {
+            // When
+            context.draw();
+
+            // Then
+            assertEquals(4, context.teamOf(0), "Pinning one friend pins the whole group");
+            assertEquals(4, context.teamOf(1));
+            assertEquals(4, context.teamOf(2));
+            assertNotEquals(context.teamOf(0), context.teamOf(3));
+            assertNotEquals(context.teamOf(3), context.teamOf(4));
+            assertNotEquals(context.teamOf(3), context.teamOf(5));
+            assertNotEquals(context.teamOf(4), context.teamOf(5));
+            for (Team team : context.getTeams()) {
+                assertTrue(team.isComplete());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject pairings that contradict each other or do not fit the teams")
+    void shouldRejectContradictoryPairings() {
+        // Given
+        List<Player> players = DefaultPlayers.get();
+        TeamMakerConfig config = new TeamMakerConfig(players, List.of("Red", "Blue", "Green", "Gold", "Navy"), null);
+        String a = players.get(0).name();
+        String b = players.get(1).name();
+
+        // When / Then
+        config.setTogether(List.of(List.of(a, b)));
+        config.setApart(List.of(List.of(b, a)));
+        assertThrows(IllegalArgumentException.class, config::validate);
+        config.setApart(List.of());
+        config.setTogether(List.of(players.subList(0, 5).stream().map(Player::name).toList()));
+        assertThrows(IllegalArgumentException.class, config::validate);
+        config.setTogether(List.of());
+        config.setApart(List.of(players.subList(0, 6).stream().map(Player::name).toList()));
+        assertThrows(IllegalArgumentException.class, config::validate);
+    }
+
+    @Test
+    @DisplayName("Should meet every tag quota in every draw")
+    void shouldMeetEveryTagQuotaInEveryDraw() {
+        // Given
+        List<Player> players = DefaultPlayers.get();
+        List<String> names = players.stream().map(Player::name).toList();
+        TeamMakerConfig config = new TeamMakerConfig(players, List.of("Red", "Blue", "Green", "Gold", "Navy"), null);
+        config.setTags(Map.of("under12", names.subList(0, 5), "girls", names.subList(4, 14)));
+        config.setQuotas(Map.of("under12", new TeamMakerConfig.Quota(1, 1),
+                "girls", new TeamMakerConfig.Quota(2, 2)));
+        config.setApart(List.of(List.of(names.get(5), names.get(6))));
+        DrawContext context = new DrawContext(config);
+
+        for (int i = 0; i < 200; i++) {
+            // When
+            context.draw();
+
+            // Then
+            int[] under12 = new int[5];
+            int[] girls = new int[5];
+            for (int p = 0; p < 5; p++) {
+                under12[context.teamOf(p)]++;
+            }
+            for (int p = 4; p < 14; p++) {
+                girls[context.teamOf(p)]++;
+            }
+            assertArrayEquals(new int[] {1, 1, 1, 1, 1}, under12);
+            assertArrayEquals(new int[] {2, 2, 2, 2, 2}, girls);
+            assertNotEquals(context.teamOf(5), context.teamOf(6));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject quotas that the tagged players cannot meet")
+    void shouldRejectQuotasThatCannotBeMet() {
+        // Given
+        List<Player> players = DefaultPlayers.get();
+        List<String> names = players.stream().map(Player::name).toList();
+        TeamMakerConfig config = new TeamMakerConfig(players, List.of("Red", "Blue", "Green", "Gold", "Navy"), null);
+        config.setTags(Map.of("keepers", names.subList(0, 3)));
+
+        // When / Then
+        config.setQuotas(Map.of("keepers", new TeamMakerConfig.Quota(1, 1)));
+        assertThrows(IllegalArgumentException.class, config::validate);
+        config.setQuotas(Map.of("strikers", new TeamMakerConfig.Quota(0, 1)));
+        assertThrows(IllegalArgumentException.class, config::validate);
+        config.setQuotas(Map.of("keepers", new TeamMakerConfig.Quota(0, 1)));
+        config.setTogether(List.of(names.subList(0, 2)));
+        assertThrows(IllegalArgumentException.class, config::validate);
+    }
+
+    private static double drawAndRead(DrawContext context) {
+        context.draw();
+        List<Team> teams = context.getTeams();
+        double total = 0;
+        for (int t = 0; t < teams.size(); t++) {
+            total += teams.get(t).getScore() + teams.get(t).getPlayers().size();
+        }
+        return total;
+    }
+}
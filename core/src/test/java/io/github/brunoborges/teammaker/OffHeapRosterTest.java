@@ -0,0 +1,70 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+@DisplayName("OffHeapRoster Tests")
+class OffHeapRosterTest {
+
+    @Test
+    @DisplayName("Should copy players off the heap and read them back")
+    void shouldCopyPlayersOffTheHeapAndReadThemBack() {
+        // Given
+        List<Player> players = DefaultPlayers.get();
+
+        // When
+        OffHeapRoster roster = OffHeapRoster.of(players);
+
+        // Then
+        assertEquals(players, roster);
+        assertEquals(players.size(), roster.nameCount());
+        assertEquals(4000, roster.fixedScore(3));
+        assertEquals(3, roster.id(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> roster.get(players.size()));
+        assertThrows(UnsupportedOperationException.class, () -> roster.add(new Player("X", 1)));
+    }
+
+    @Test
+    @DisplayName("Should store repeated names once in the dictionary")
+    void shouldStoreRepeatedNamesOnceInTheDictionary() {
+        // Given
+        OffHeapRoster.Builder builder = OffHeapRoster.builder(FixedPointScale.of(1));
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            builder.add(100_000 + i, "Player " + (i % 10) + " São", i % 5 + 0.5);
+        }
+        OffHeapRoster roster = builder.build();
+
+        // Then
+        assertEquals(1000, roster.size());
+        assertEquals(10, roster.nameCount());
+        assertEquals("Player 7 São", roster.name(997));
+        assertEquals(roster.nameIndex(7), roster.nameIndex(997));
+        assertEquals(100_997, roster.id(997));
+        assertEquals(2.5, roster.score(997));
+        assertEquals(25, roster.fixedScore(997));
+    }
+
+    @Test
+    @DisplayName("Should draw teams directly from an off-heap roster")
+    void shouldDrawTeamsDirectlyFromAnOffHeapRoster() {
+        // Given
+        OffHeapRoster roster = OffHeapRoster.of(DefaultPlayers.get());
+        CanonicalRoster canonical = CanonicalRoster.of(roster, 4);
+
+        // When
+        DrawContext context = new DrawContext(roster, 5);
+        context.draw();
+        TeamMakerResult result = context.toResult();
+
+        // Then
+        assertSame(roster, canonical.players());
+        assertEquals(CanonicalRoster.of(DefaultPlayers.get(), 4).canonicalHash(), canonical.canonicalHash());
+        assertEquals(4, result.getTeams().size());
+        assertEquals(20, result.getTeams().stream().mapToInt(t -> t.getPlayers().size()).sum());
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@DisplayName("ResultWriter Tests")
+class ResultWriterTest {
+
+    private static TeamMakerResult createResult() {
+        Team first = new Team("Team A", 2);
+        first.add(new Player("Alex", 3.0));
+        first.add(new Player("Silva, \"Bia\"", 4.25));
+        Team second = new Team("Team B", 2);
+        second.add(new Player("João", 2.0));
+        second.add(new Player("Duda", 4.0));
+        return new TeamMakerResult(List.of(first, second), true, 6.0, 7.25);
+    }
+
+    private static String write(String format, TeamMakerResult result) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultWriter.forFormat(format).write(result, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should write a result as a JSON document")
+    void shouldWriteResultAsJsonDocument() throws IOException {
+        // When
+        String json = write("json", createResult());
+
+        // Then
+        assertEquals("{\"balanced\":true,\"minimumStrength\":6.0,\"maximumStrength\":7.25,\"teams\":["
+                + "{\"name\":\"Team A\",\"score\":7.25,\"players\":[{\"name\":\"Alex\",\"score\":3.0},"
+                + "{\"name\":\"Silva, \\\"Bia\\\"\",\"score\":4.25}]},"
+                + "{\"name\":\"Team B\",\"score\":6.0,\"players\":[{\"name\":\"João\",\"score\":2.0},"
+                + "{\"name\":\"Duda\",\"score\":4.0}]}]}", json);
+    }
+
+    @Test
+    @DisplayName("Should write one CSV row per player with quoted names")
+    void shouldWriteOneCsvRowPerPlayerWithQuotedNames() throws IOException {
+        // When
+        String csv = write("CSV", createResult());
+
+        // Then
+        assertEquals("""
+                team,team_name,team_score,player,player_score
+                1,Team A,7.25,Alex,3.0
+                1,Team A,7.25,"Silva, \"\"Bia\"\"",4.25
+                2,Team B,6.0,João,2.0
+                2,Team B,6.0,Duda,4.0
+                """, csv);
+    }
+
+    @Test
+    @DisplayName("Should write a summary line and one NDJSON line per team to a channel")
+    void shouldWriteSummaryAndOneNdjsonLinePerTeamToChannel() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        ResultWriter.forFormat("ndjson").write(createResult(), Channels.newChannel(out));
+
+        // Then
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals("{\"type\":\"summary\",\"teams\":2,\"balanced\":true,"
+                + "\"minimumStrength\":6.0,\"maximumStrength\":7.25}", lines.get(0));
+        assertTrue(lines.get(2).startsWith("{\"type\":\"team\",\"team\":2,\"name\":\"Team B\""));
+        assertThrows(IllegalArgumentException.class, () -> ResultWriter.forFormat("xml"));
+    }
+
+    @Test
+    @DisplayName("Should write the same rounded player scores in every format")
+    void shouldWriteTheSameRoundedPlayerScoresInEveryFormat() throws IOException {
+        // Given: a score with more digits than the default precision of three
+        Team team = new Team("Team A", 2);
+        team.add(new Player("Alex", 3.14159));
+        team.add(new Player("Bia", 2.0));
+        TeamMakerResult result = new TeamMakerResult(List.of(team), true, TeamStatistics.of(List.of(team)));
+
+        // When / Then
+        for (String format : ResultWriter.FORMATS) {
+            String output = write(format, result);
+            assertTrue(output.contains("3.142"), format + ": " + output);
+            assertFalse(output.contains("3.1415"), format + ": " + output);
+        }
+    }
+}
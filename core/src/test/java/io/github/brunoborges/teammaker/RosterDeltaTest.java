@@ -0,0 +1,32 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+@DisplayName("RosterDelta Tests")
+class RosterDeltaTest {
+
+    @Test
+    @DisplayName("Should match players by name and report added, removed and rescored players")
+    void shouldMatchPlayersByNameAndReportChanges() {
+        // Given
+        List<Player> previous = List.of(new Player("Ann", 3), new Player("Bob", 2),
+                new Player("Cid", 4), new Player("Cid", 1));
+        List<Player> current = List.of(new Player("Cid", 4), new Player("Ann", 3.5),
+                new Player("Dee", 2));
+
+        // When
+        RosterDelta delta = RosterDelta.between(previous, current);
+
+        // Then
+        assertEquals(List.of(new Player("Dee", 2)), delta.getAdded());
+        assertEquals(List.of(new Player("Bob", 2), new Player("Cid", 1)), delta.getRemoved());
+        assertEquals(List.of(new Player("Ann", 3.5)), delta.getRescored());
+        assertEquals(List.of(new Player("Ann", 3)), delta.getReplaced());
+        assertEquals("1 added, 2 removed, 1 rescored", delta.toString());
+        assertTrue(RosterDelta.between(current, List.copyOf(current)).isEmpty());
+    }
+}
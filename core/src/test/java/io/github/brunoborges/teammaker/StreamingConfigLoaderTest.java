@@ -0,0 +1,239 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+@DisplayName("StreamingConfigLoader Tests")
+class StreamingConfigLoaderTest {
+
+    private static InputStream json(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should keep players on the heap unless asked for an off-heap roster")
+    void shouldKeepPlayersOnTheHeapByDefault() throws IOException {
+        // Given
+        StreamingConfigLoader loader = new StreamingConfigLoader();
+
+        // When
+        TeamMakerConfig config;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("team-config.json")) {
+            config = loader.load(in);
+        }
+
+        // Then
+        assertFalse(config.getPlayers() instanceof OffHeapRoster);
+        assertThrows(UnsupportedOperationException.class, () -> config.getPlayers().clear());
+        assertEquals(20, config.getPlayers().size());
+        assertEquals("Alex", config.getPlayers().get(0).name());
+    }
+
+    @Test
+    @DisplayName("Should stream the bundled configuration into an off-heap roster")
+    void shouldStreamBundledConfigurationIntoOffHeapRoster() throws IOException {
+        // Given
+        StreamingConfigLoader loader = new StreamingConfigLoader(StreamingConfigLoader.DEFAULT_MAX_PLAYERS,
+                StreamingConfigLoader.DEFAULT_MAX_TEAMS, StreamingConfigLoader.DEFAULT_MAX_NAME_LENGTH,
+                StreamingConfigLoader.DEFAULT_MAX_DOCUMENT_BYTES, true);
+
+        // When
+        TeamMakerConfig config;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("team-config.json")) {
+            config = loader.load(in);
+        }
+
+        // Then
+        assertInstanceOf(OffHeapRoster.class, config.getPlayers());
+        assertEquals(20, config.getPlayers().size());
+        assertEquals(10, config.getTeamNames().size());
+        assertEquals("Alex", config.getPlayers().get(0).name());
+        assertEquals(5.0, config.getScoreScale().getMax());
+        assertDoesNotThrow(config::validate);
+    }
+
+    @Test
+    @DisplayName("Should reject scores that are not finite")
+    void shouldRejectScoresThatAreNotFinite() {
+        // Given
+        String text = """
+                {
+                  "teamNames": ["A", "B"],
+                  "players": [
+                    {"name": "Ann", "score": "NaN"},
+                    {"name": "Bob", "score": "Infinity"},
+                    {"name": "Cid", "score": 1e400},
+                    {"name": "Dee", "score": 3}
+                  ]
+                }
+                """;
+
+        // When
+        ConfigValidationException e = assertThrows(ConfigValidationException.class,
+                () -> new StreamingConfigLoader().load(json(text)));
+
+        // Then
+        assertEquals(List.of("players[0].score must be a finite number", "players[1].score must be a finite number",
+                "players[2].score must be a finite number"), e.getErrors());
+    }
+
+    @Test
+    @DisplayName("Should report every validation error in one pass")
+    void shouldReportEveryValidationErrorInOnePass() {
+        // Given
+        String text = """
+                {
+                  "scoreScale": {"min": 1, "max": 5},
+                  "teamNames": ["A", "B"],
+                  "players": [
+                    {"name": "Ann", "score": 9},
+                    {"score": 3},
+                    {"name": "Cid", "score": "high"},
+                    {"name": "Dee", "score": 0, "team": "A"},
+                    {"name": "Eve", "score": 4}
+                  ]
+                }
+                """;
+
+        // When
+        ConfigValidationException e = assertThrows(ConfigValidationException.class,
+                () -> new StreamingConfigLoader().load(json(text)));
+
+        // Then
+        assertEquals(5, e.getErrorCount());
+        assertTrue(e.getErrors().contains("players[1]: missing name"));
+        assertTrue(e.getErrors().contains("players[2].score must be a number"));
+        assertTrue(e.getErrors().contains("players[3]: unknown field 'team'"));
+        assertTrue(e.getErrors().stream().anyMatch(error -> error.startsWith("Number of players (5)")));
+        assertTrue(e.getErrors().contains("Player Ann has score 9.0 which is outside the valid range [1.0, 5.0]"));
+        assertTrue(e.getMessage().startsWith("Configuration has 5 errors:"));
+    }
+
+    @Test
+    @DisplayName("Should abort when a size limit is exceeded")
+    void shouldAbortWhenSizeLimitIsExceeded() {
+        // Given
+        StreamingConfigLoader loader = new StreamingConfigLoader(2, 10, 8, 1 << 20);
+        String tooMany = "{\"teamNames\": [\"A\"], \"players\": [{\"name\": \"a\", \"score\": 1}, "
+                + "{\"name\": \"b\", \"score\": 1}, {\"name\": \"c\", \"score\": 1}]}";
+        String tooLong = "{\"teamNames\": [\"A\"], \"players\": [{\"name\": \"Maximilian\", \"score\": 1}]}";
+
+        // When
+        ConfigValidationException players = assertThrows(ConfigValidationException.class,
+                () -> loader.load(json(tooMany)));
+        ConfigValidationException name = assertThrows(ConfigValidationException.class,
+                () -> loader.load(json(tooLong)));
+
+        // Then
+        assertEquals("Roster exceeds the limit of 2 players", players.getMessage());
+        assertEquals("players[0].name is longer than 8 characters", name.getMessage());
+        assertThrows(IOException.class,
+                () -> new StreamingConfigLoader(10, 10, 10, 16).load(json(tooLong)));
+    }
+
+    @Test
+    @DisplayName("Should read back a configuration written without data binding")
+    void shouldReadBackConfigurationWrittenWithoutDataBinding() throws IOException {
+        // Given
+        TeamMakerConfig.ScoreScale scale = new TeamMakerConfig.ScoreScale(1, 5);
+        scale.setPrecision(2);
+        TeamMakerConfig config = new TeamMakerConfig(
+                List.of(new Player("Zoë \"Z\"", 4.25), new Player("Bo", 2.0)), List.of("Red", "Blue"), scale);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        JsonConfigLoader.writeTo(config, out);
+        TeamMakerConfig reloaded = new StreamingConfigLoader().load(new ByteArrayInputStream(out.toByteArray()));
+
+        // Then
+        assertEquals(config.getPlayers(), List.copyOf(reloaded.getPlayers()));
+        assertEquals(config.getTeamNames(), reloaded.getTeamNames());
+        assertEquals(2, reloaded.getScoreScale().getPrecision());
+        assertEquals(5.0, reloaded.getScoreScale().getMax());
+    }
+
+    @Test
+    @DisplayName("Should read and write constraints and report constraints that do not fit the roster")
+    void shouldReadAndWriteConstraints() throws IOException {
+        // Given
+        TeamMakerConfig config = new TeamMakerConfig(List.of(new Player("Ann", 4), new Player("Bob", 2),
+                new Player("Cid", 3), new Player("Dee", 3)), List.of("Red", "Blue"), null);
+        config.setPins(Map.of("Ann", "Blue"));
+        config.setTogether(List.of(List.of("Ann", "Bob")));
+        config.setApart(List.of(List.of("Cid", "Dee")));
+        config.setTags(Map.of("keeper", List.of("Cid", "Dee")));
+        config.setQuotas(Map.of("keeper", new TeamMakerConfig.Quota(1, 1)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        JsonConfigLoader.writeTo(config, out);
+        TeamMakerConfig reloaded = new StreamingConfigLoader().load(new ByteArrayInputStream(out.toByteArray()));
+        ConfigValidationException e = assertThrows(ConfigValidationException.class,
+                () -> new StreamingConfigLoader().load(json("""
+                        {"players": [{"name": "Ann", "score": 4}, {"name": "Bob", "score": 2}],
+                         "teamNames": ["Red", "Blue"], "pins": {"Cid": "Red"}}
+                        """)));
+
+        // Then
+        assertEquals(Map.of("Ann", "Blue"), reloaded.getPins());
+        assertEquals(List.of(List.of("Ann", "Bob")), reloaded.getTogether());
+        assertEquals(List.of(List.of("Cid", "Dee")), reloaded.getApart());
+        assertEquals(Map.of("keeper", List.of("Cid", "Dee")), reloaded.getTags());
+        assertEquals(Map.of("keeper", new TeamMakerConfig.Quota(1, 1)), reloaded.getQuotas());
+        assertTrue(e.getMessage().contains("Pinned player Cid is not in the roster"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should resolve the constraints of a loaded configuration only once")
+    void shouldResolveTheConstraintsOnlyOnce() throws IOException {
+        // Given
+        TeamMakerConfig config = new StreamingConfigLoader().load(json("""
+                {"players": [{"name": "Ann", "score": 4}, {"name": "Bob", "score": 2},
+                             {"name": "Cid", "score": 3}, {"name": "Dee", "score": 1}],
+                 "teamNames": ["Red", "Blue"], "pins": {"Ann": "Red"}}
+                """));
+        DrawConstraints loaded = config.constraints();
+
+        // When
+        config.validate();
+        DrawConstraints validated = config.constraints();
+        config.setPins(Map.of("Ann", "Blue"));
+
+        // Then
+        assertSame(loaded, validated, "Validating should reuse the constraints resolved by the loader");
+        assertNotSame(loaded, config.constraints(), "Changing the pins should resolve the constraints again");
+    }
+
+    @Test
+    @DisplayName("Should parse work in progress without validating it")
+    void shouldParseWorkInProgressWithoutValidatingIt() throws IOException {
+        // Given: an uneven roster whose pin names a player not added yet
+        TeamMakerConfig draft = new TeamMakerConfig(List.of(new Player("Ann", 4), new Player("Bob", 2),
+                new Player("Cid", 3)), List.of("Red", "Blue"), new TeamMakerConfig.ScoreScale(1, 5));
+        draft.setPins(Map.of("Dee", "Red"));
+        draft.setApart(List.of(List.of("Ann", "Bob")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonConfigLoader.writeTo(draft, out);
+        StreamingConfigLoader loader = new StreamingConfigLoader();
+
+        // When
+        TeamMakerConfig parsed = loader.parse(new ByteArrayInputStream(out.toByteArray()));
+
+        // Then
+        assertEquals(draft.getPlayers(), parsed.getPlayers());
+        assertEquals(draft.getTeamNames(), parsed.getTeamNames());
+        assertEquals(draft.getPins(), parsed.getPins());
+        assertEquals(draft.getApart(), parsed.getApart());
+        assertThrows(ConfigValidationException.class, () -> loader.load(new ByteArrayInputStream(out.toByteArray())));
+        assertThrows(ConfigValidationException.class, () -> loader.parse(json("{\"players\": 3}")));
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DisplayName("TeamMakerBatch Tests")
+class TeamMakerBatchTest {
+
+    @Test
+    @DisplayName("Should return results in input order")
+    void shouldReturnResultsInInputOrder() {
+        // Given
+        List<TeamMakerConfig> configs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            configs.add(config(List.of("Red " + i, "Blue " + i), 4));
+        }
+
+        // When
+        List<TeamMakerBatch.Outcome> outcomes;
+        try (TeamMakerBatch batch = new TeamMakerBatch(4)) {
+            outcomes = batch.createBalancedTeams(configs);
+        }
+
+        // Then
+        assertEquals(50, outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            TeamMakerBatch.Outcome outcome = outcomes.get(i);
+            assertEquals(i, outcome.index());
+            assertTrue(outcome.isSuccess());
+            int index = i;
+            assertTrue(outcome.result().getTeams().stream()
+                    .allMatch(team -> team.getName().endsWith(" " + index)),
+                    "Teams should come from configuration " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should isolate failures to their own entry")
+    void shouldIsolateFailuresToTheirOwnEntry() {
+        // Given
+        TeamMakerConfig invalid = config(List.of("Red", "Blue", "Green"), 4);
+        List<TeamMakerConfig> configs = List.of(
+                config(List.of("Red", "Blue"), 4),
+                invalid,
+                config(List.of("Red", "Blue"), 6));
+
+        // When
+        List<TeamMakerBatch.Outcome> outcomes;
+        try (TeamMakerBatch batch = new TeamMakerBatch(2)) {
+            outcomes = batch.createBalancedTeams(configs);
+        }
+
+        // Then
+        assertTrue(outcomes.get(0).isSuccess());
+        assertFalse(outcomes.get(1).isSuccess());
+        assertNull(outcomes.get(1).result());
+        assertInstanceOf(IllegalArgumentException.class, outcomes.get(1).error());
+        assertTrue(outcomes.get(2).isSuccess());
+        assertEquals(2, outcomes.get(2).result().getTeams().size());
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive parallelism")
+    void shouldRejectNonPositiveParallelism() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new TeamMakerBatch(0));
+    }
+
+    private static TeamMakerConfig config(List<String> teamNames, int playerCount) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new Player("Player " + i, 3.0));
+        }
+        return new TeamMakerConfig(players, teamNames, new TeamMakerConfig.ScoreScale(1.0, 5.0));
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@DisplayName("TeamMakerCache Tests")
+class TeamMakerCacheTest {
+
+    @Test
+    @DisplayName("Should reuse the cached line-up shape for renamed players")
+    void shouldReuseCachedLineUpShapeForRenamedPlayers() {
+        // Given
+        TeamMakerCache cache = new TeamMakerCache(8);
+        TeamMakerConfig original = config("");
+        TeamMakerConfig renamed = config(" Jr.");
+
+        // When
+        TeamMakerResult first = cache.createBalancedTeams(original);
+        TeamMakerResult second = cache.createBalancedTeams(renamed);
+
+        // Then
+        assertEquals(1, cache.size());
+        assertEquals(lineUpShape(first), lineUpShape(second));
+        assertEquals(first.getMaximumStrength() - first.getMinimumStrength(),
+                second.getMaximumStrength() - second.getMinimumStrength(), 0.001);
+        assertTrue(second.getTeams().stream()
+                .flatMap(team -> team.getPlayers().stream())
+                .allMatch(player -> player.name().endsWith(" Jr.")));
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entries")
+    void shouldEvictLeastRecentlyUsedEntries() {
+        // Given
+        TeamMakerCache cache = new TeamMakerCache(2);
+
+        // When
+        cache.createBalancedTeams(config(List.of(1.0, 2.0, 3.0, 4.0)));
+        cache.createBalancedTeams(config(List.of(2.0, 2.0, 3.0, 4.0)));
+        cache.createBalancedTeams(config(List.of(3.0, 2.0, 3.0, 4.0)));
+
+        // Then
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should persist solutions to disk")
+    void shouldPersistSolutionsToDisk(@TempDir Path directory) throws Exception {
+        // Given
+        TeamMakerResult first = new TeamMakerCache(4, directory).createBalancedTeams(config(""));
+
+        // When
+        TeamMakerCache reloaded = new TeamMakerCache(4, directory);
+        TeamMakerResult second = reloaded.createBalancedTeams(config(""));
+
+        // Then
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.filter(f -> f.toString().endsWith(".json")).count());
+        }
+        assertEquals(1, reloaded.size());
+        assertEquals(lineUpShape(first), lineUpShape(second));
+    }
+
+    @Test
+    @DisplayName("Should recompute a solution whose entry on disk was corrupted")
+    void shouldRecomputeACorruptedSolution(@TempDir Path directory) throws Exception {
+        // Given: the stored teams no longer deal out every player once
+        TeamMakerConfig config = config(List.of(1.0, 2.0, 3.0, 4.0));
+        new TeamMakerCache(4, directory).createBalancedTeams(config);
+        Path file;
+        try (var files = Files.list(directory)) {
+            file = files.filter(f -> f.toString().endsWith(".json")).findFirst().orElseThrow();
+        }
+        String stored = Files.readString(file);
+        Files.writeString(file, stored.replaceAll("\"teams\":\\[.*\\]", "\"teams\":[[1,0,0,1],[0,1,1]]"));
+        String truncated = Files.readString(file);
+        Files.writeString(file, stored.replaceAll("\"teams\":\\[.*\\]", "\"teams\":[[1,1,1,1],[0,0,0,0]]"));
+        String lopsided = Files.readString(file);
+
+        for (String corrupted : List.of(truncated, lopsided)) {
+            Files.writeString(file, corrupted);
+
+            // When
+            TeamMakerResult result = new TeamMakerCache(4, directory).createBalancedTeams(config);
+
+            // Then
+            assertNotEquals(stored, corrupted);
+            for (Team team : result.getTeams()) {
+                assertEquals(2, team.getPlayers().size());
+            }
+            assertNotEquals(corrupted, Files.readString(file), "The corrupted entry should be overwritten");
+        }
+    }
+
+    private static TeamMakerConfig config(String suffix) {
+        List<Player> players = new ArrayList<>();
+        for (Player p : DefaultPlayers.get()) {
+            players.add(new Player(p.name() + suffix, p.score()));
+        }
+        return new TeamMakerConfig(players, List.of("Team A", "Team B", "Team C", "Team D"),
+                new TeamMakerConfig.ScoreScale(1.0, 5.0));
+    }
+
+    private static TeamMakerConfig config(List<Double> scores) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < scores.size(); i++) {
+            players.add(new Player("Player " + i, scores.get(i)));
+        }
+        return new TeamMakerConfig(players, List.of("Team A", "Team B"), new TeamMakerConfig.ScoreScale(1.0, 5.0));
+    }
+
+    private static Map<String, Integer> lineUpShape(TeamMakerResult result) {
+        Map<String, Integer> shape = new TreeMap<>();
+        for (Team team : result.getTeams()) {
+            List<Double> scores = team.getPlayers().stream().map(Player::score).sorted().toList();
+            shape.merge(scores.toString(), 1, Integer::sum);
+        }
+        return shape;
+    }
+}
@@ -5,6 +5,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -182,4 +186,85 @@ class TeamMakerResultTest {
         assertEquals(6.0, largeResult.getMinimumStrength(), 0.001);
         assertEquals(6.0, largeResult.getMaximumStrength(), 0.001);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should expose statistics computed once from the teams")
+    void shouldExposeStatisticsComputedOnceFromTheTeams() {
+        // Given
+        List<Team> teams = new ArrayList<>();
+        double[][] scores = { {3.0, 3.0}, {4.0, 4.0}, {2.0, 3.0} };
+        for (int i = 0; i < scores.length; i++) {
+            Team team = new Team("Team " + i, 2);
+            team.add(new Player("P" + i + "a", scores[i][0]));
+            team.add(new Player("P" + i + "b", scores[i][1]));
+            teams.add(team);
+        }
+
+        // When
+        TeamStatistics statistics = TeamStatistics.of(teams);
+        TeamMakerResult statsResult = new TeamMakerResult(teams, true, statistics);
+
+        // Then
+        assertSame(statistics, statsResult.getStatistics());
+        assertEquals(3, statistics.getTeamCount());
+        assertEquals(19.0, statistics.getSum(), 0.001);
+        assertEquals(19.0 / 3, statistics.getMean(), 0.001);
+        assertEquals(5.0, statsResult.getMinimumStrength(), 0.001);
+        assertEquals(8.0, statsResult.getMaximumStrength(), 0.001);
+        assertEquals(3.0, statistics.getSpread(), 0.001);
+        assertEquals(5.0 / 8.0, statistics.getRatio(), 0.001);
+        assertEquals(1.5556, statistics.getVariance(), 0.001);
+        assertTrue(statistics.getZScore(1) > 0);
+        assertTrue(statistics.getZScore(2) < 0);
+    }
+
+    @Test
+    @DisplayName("Should materialize teams lazily from a compact assignment")
+    void shouldMaterializeTeamsLazilyFromCompactAssignment() {
+        // Given
+        DrawContext context = new DrawContext(DefaultPlayers.get(), 5);
+        context.draw();
+
+        // When
+        TeamMakerResult lazyResult = context.toResult();
+        CompactAssignment assignment = lazyResult.getAssignment();
+
+        // Then
+        assertNotNull(assignment);
+        assertEquals(DefaultPlayers.get().size(), assignment.getPlayerCount());
+        List<Team> teams = lazyResult.getTeams();
+        assertSame(teams, lazyResult.getTeams());
+        assertEquals(4, teams.size());
+        for (int t = 0; t < teams.size(); t++) {
+            Team team = teams.get(t);
+            assertTrue(team.isSealed());
+            assertEquals(5, team.getPlayers().size());
+            assertEquals(assignment.teamName(t), team.getName());
+            assertEquals(assignment.teamSum(t), team.getScore(), 0.001);
+        }
+        assertEquals(lazyResult.getStatistics().getMinimum(), lazyResult.getMinimumStrength(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should round-trip a compact assignment through its binary form")
+    void shouldRoundTripCompactAssignmentThroughBinaryForm() throws Exception {
+        // Given
+        CompactAssignment assignment = new CompactAssignment(
+                new int[] {1, 0, 0, 1}, new double[] {4.5, 6.0}, List.of("Red", "Blue"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // When
+        assignment.writeTo(new DataOutputStream(bytes));
+        CompactAssignment read = CompactAssignment.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // Then
+        assertEquals(4, read.getPlayerCount());
+        assertEquals(List.of("Red", "Blue"), read.getTeamNames());
+        assertEquals(6.0, read.teamSum(1), 0.001);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(assignment.teamOf(i), read.teamOf(i));
+        }
+        assertNull(new TeamMakerResult(List.of(), true, 0, 0).getAssignment());
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @DisplayName("TeamMaker Tests")
 class TeamMakerTest {
@@ -239,4 +240,57 @@ class TeamMakerTest {
         assertEquals(2.0, result1.getTeams().get(0).getScore(), 0.001);
         assertEquals(4.0, result2.getTeams().get(0).getScore(), 0.001);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should notice changes to a roster drawn before")
+    void shouldNoticeChangesToARosterDrawnBefore() {
+        // Given
+        List<Player> players = new ArrayList<>(List.of(new Player("P1", 1.0), new Player("P2", 1.0)));
+        teamMaker.createBalancedTeams(players);
+
+        // When
+        players.set(1, new Player("P3", 3.0));
+        TeamMakerResult result = teamMaker.createBalancedTeams(players);
+
+        // Then
+        assertEquals(4.0, result.getTeams().get(0).getScore(), 0.001);
+        assertTrue(result.getTeams().get(0).getPlayers().contains(new Player("P3", 3.0)));
+    }
+
+    @Test
+    @DisplayName("Should apply pins set on the configuration after a draw")
+    void shouldApplyPinsSetAfterADraw() {
+        // Given
+        List<Player> players = List.of(new Player("A", 3.0), new Player("B", 3.0),
+                new Player("C", 3.0), new Player("D", 3.0));
+        TeamMakerConfig config = new TeamMakerConfig(players, List.of("X", "Y"), null);
+        TeamMaker pinned = new TeamMaker(config);
+        pinned.createBalancedTeams(players);
+
+        // When
+        config.setPins(Map.of("A", "X", "B", "X"));
+
+        // Then
+        for (int i = 0; i < 50; i++) {
+            Team x = pinned.createBalancedTeams(players).getTeams().stream()
+                    .filter(team -> team.getName().equals("X")).findFirst().orElseThrow();
+            assertTrue(x.getPlayers().contains(players.get(0)), "A should be pinned to X");
+            assertTrue(x.getPlayers().contains(players.get(1)), "B should be pinned to X");
+        }
+    }
+
+    @Test
+    @DisplayName("Should hand out sealed teams")
+    void shouldHandOutSealedTeams() {
+        // When
+        TeamMakerResult result = teamMaker.createBalancedTeams();
+
+        // Then
+        assertThrows(UnsupportedOperationException.class, () -> result.getTeams().clear());
+        for (Team team : result.getTeams()) {
+            assertTrue(team.isSealed());
+            assertSame(team.getPlayers(), team.getPlayers());
+            assertThrows(IllegalStateException.class, () -> team.add(new Player("Late", 3.0)));
+        }
+    }
+}
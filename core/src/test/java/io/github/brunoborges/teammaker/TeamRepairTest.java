@@ -0,0 +1,161 @@
+package io.github.brunoborges.teammaker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DisplayName("TeamRepair Tests")
+class TeamRepairTest {
+
+    private static TeamMakerResult result(List<List<Player>> teams) {
+        List<Team> built = new ArrayList<>();
+        for (int t = 0; t < teams.size(); t++) {
+            Team team = new Team("Team " + t, teams.get(t).size());
+            teams.get(t).forEach(team::add);
+            built.add(team);
+        }
+        return new TeamMakerResult(built, true, TeamStatistics.of(built));
+    }
+
+    private static String teamOf(TeamMakerResult result, String name) {
+        for (Team team : result.getTeams()) {
+            for (Player player : team.getPlayers()) {
+                if (player.name().equals(name)) {
+                    return team.getName();
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    @DisplayName("Should replace a departed player with an arrival and keep everyone else in place")
+    void shouldReplaceADepartedPlayerWithAnArrival() {
+        // Given
+        TeamMakerResult previous = result(List.of(
+                List.of(new Player("Ann", 5), new Player("Bob", 1)),
+                List.of(new Player("Cid", 4), new Player("Dee", 2)),
+                List.of(new Player("Eve", 3), new Player("Fay", 3))));
+        List<Player> roster = new ArrayList<>(List.of(new Player("Ann", 5), new Player("Cid", 4),
+                new Player("Dee", 2), new Player("Eve", 3), new Player("Fay", 3), new Player("Gus", 1)));
+
+        // When
+        TeamMakerResult repaired = TeamRepair.repair(previous, RosterDelta.between(
+                List.of(new Player("Ann", 5), new Player("Bob", 1), new Player("Cid", 4),
+                        new Player("Dee", 2), new Player("Eve", 3), new Player("Fay", 3)), roster));
+
+        // Then
+        assertTrue(repaired.isBalanced());
+        assertEquals("Team 0", teamOf(repaired, "Gus"));
+        assertNull(teamOf(repaired, "Bob"));
+        for (String name : List.of("Ann", "Cid", "Dee", "Eve", "Fay")) {
+            assertEquals(teamOf(previous, name), teamOf(repaired, name), name + " should keep their team");
+        }
+        assertEquals(List.of("Team 0", "Team 1", "Team 2"), repaired.getAssignment().getTeamNames());
+    }
+
+    @Test
+    @DisplayName("Should even out team sizes and swap players until the teams are balanced")
+    void shouldEvenOutTeamSizesAndSwapUntilBalanced() {
+        // Given
+        TeamMakerResult previous = result(List.of(
+                List.of(new Player("Ann", 5), new Player("Bob", 1), new Player("Cid", 3)),
+                List.of(new Player("Dee", 4), new Player("Eve", 2), new Player("Fay", 3))));
+        TeamRepair repair = new TeamRepair(previous);
+
+        // When
+        boolean balanced = repair.apply(RosterDelta.between(
+                List.of(new Player("Ann", 5), new Player("Bob", 1), new Player("Cid", 3),
+                        new Player("Dee", 4), new Player("Eve", 2), new Player("Fay", 3)),
+                List.of(new Player("Ann", 5), new Player("Bob", 1), new Player("Cid", 3),
+                        new Player("Dee", 1), new Player("Gus", 2), new Player("Hal", 2))));
+
+        // Then
+        TeamMakerResult repaired = repair.toResult();
+        assertTrue(balanced);
+        assertEquals(1, repair.getLastMoves(), "Swapping Cid for Dee balances the teams in one move");
+        assertEquals(3, repaired.getTeams().get(0).getPlayers().size());
+        assertEquals(3, repaired.getTeams().get(1).getPlayers().size());
+        assertEquals(14.0, repaired.getStatistics().getSum(), 1e-9);
+        assertTrue(repaired.getMinimumStrength() * 100 >= TeamMaker.BALANCE_PERCENT * repaired.getMaximumStrength());
+    }
+
+    @Test
+    @DisplayName("Should take the single swap that balances every team when one exists")
+    void shouldTakeTheSingleSwapThatBalancesEveryTeam() {
+        // Given: after the rescore the teams are 9, 7 and 4 strong, which one
+        // swap between the strongest and the weakest team balances
+        TeamMakerResult previous = result(List.of(
+                List.of(new Player("Ann", 5), new Player("Bob", 4)),
+                List.of(new Player("Cid", 4), new Player("Dee", 3)),
+                List.of(new Player("Eve", 3), new Player("Fay", 3))));
+        TeamRepair repair = new TeamRepair(previous);
+
+        // When
+        boolean balanced = repair.apply(RosterDelta.between(
+                List.of(new Player("Fay", 3)), List.of(new Player("Fay", 1))));
+
+        // Then
+        assertTrue(balanced);
+        assertEquals(1, repair.getLastMoves());
+    }
+
+    @Test
+    @DisplayName("Should tell apart players who share a name")
+    void shouldTellApartPlayersWhoShareAName() {
+        // Given: A:5 is rescored to 4 and A:3, on the first team, leaves
+        List<Player> before = List.of(new Player("A", 5), new Player("Y", 2), new Player("A", 3),
+                new Player("X", 1), new Player("Z", 2), new Player("W", 2));
+        List<Player> after = List.of(new Player("A", 4), new Player("Y", 2), new Player("N", 3),
+                new Player("X", 1), new Player("Z", 2), new Player("W", 2));
+        TeamMakerResult previous = result(List.of(
+                List.of(before.get(2), before.get(3)),
+                List.of(before.get(0), before.get(1)),
+                List.of(before.get(4), before.get(5))));
+        RosterDelta delta = RosterDelta.between(before, after);
+
+        // When
+        TeamMakerResult repaired = TeamRepair.repair(previous, delta);
+
+        // Then
+        List<Player> players = repaired.getTeams().stream().flatMap(team -> team.getPlayers().stream()).toList();
+        assertEquals(6, players.size());
+        assertTrue(players.containsAll(after), players.toString());
+        assertEquals(14.0, repaired.getStatistics().getSum(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should leave the teams as they were when a change does not fit")
+    void shouldLeaveTheTeamsAsTheyWereWhenAChangeDoesNotFit() {
+        // Given: A:5 is rescored but the delta removes an A:3 that is not in the teams
+        TeamRepair repair = new TeamRepair(result(List.of(
+                List.of(new Player("A", 5), new Player("X", 1)),
+                List.of(new Player("Y", 2), new Player("Z", 2)))));
+        RosterDelta delta = RosterDelta.between(
+                List.of(new Player("A", 5), new Player("A", 3), new Player("Y", 2), new Player("Z", 2)),
+                List.of(new Player("A", 4), new Player("N", 3), new Player("Y", 2), new Player("Z", 2)));
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> repair.apply(delta));
+        assertTrue(repair.toResult().getTeams().get(0).getPlayers().contains(new Player("A", 5)));
+        assertEquals(10.0, repair.toResult().getStatistics().getSum(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should reject changes that do not fit the teams")
+    void shouldRejectChangesThatDoNotFitTheTeams() {
+        // Given
+        List<Player> roster = List.of(new Player("Ann", 2), new Player("Bob", 2));
+        TeamRepair repair = new TeamRepair(result(List.of(List.of(roster.get(0)), List.of(roster.get(1)))));
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> repair.apply(RosterDelta.between(roster, List.of(new Player("Ann", 2)))));
+        assertThrows(IllegalArgumentException.class,
+                () -> repair.apply(RosterDelta.between(List.of(new Player("Zed", 2)), List.of(new Player("Zed", 3)))));
+        assertEquals(2, repair.toResult().getTeams().stream().mapToInt(team -> team.getPlayers().size()).sum());
+    }
+}
@@ -243,4 +243,69 @@ class TeamTest {
         team.add(player3);
         assertEquals(2, team.getScore());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should sum scores exactly in fixed point")
+    void shouldSumScoresExactlyInFixedPoint() {
+        // Given
+        Team decimalTeam = new Team("Decimal Team", 3);
+
+        // When
+        decimalTeam.add(new Player("P1", 0.1));
+        decimalTeam.add(new Player("P2", 0.2));
+        decimalTeam.add(new Player("P3", 0.3));
+
+        // Then
+        assertEquals(600, decimalTeam.getFixedScore());
+        assertEquals(0.6, decimalTeam.getScore());
+    }
+
+    @Test
+    @DisplayName("Should round scores to the team's fixed-point precision")
+    void shouldRoundScoresToTeamsFixedPointPrecision() {
+        // Given
+        Team coarseTeam = new Team("Coarse Team", 2, FixedPointScale.of(1));
+
+        // When
+        coarseTeam.add(new Player("P1", 2.26));
+        coarseTeam.add(new Player("P2", 1.0));
+
+        // Then
+        assertEquals(33, coarseTeam.getFixedScore());
+        assertEquals(3.3, coarseTeam.getScore());
+    }
+
+    @Test
+    @DisplayName("Should share one read-only view once sealed")
+    void shouldShareOneReadOnlyViewOnceSealed() {
+        // Given
+        team.add(player1);
+        team.add(player2);
+
+        // When
+        team.seal();
+
+        // Then
+        assertTrue(team.isSealed());
+        assertSame(team.getPlayers(), team.getPlayers());
+        assertEquals(2, team.getPlayers().size());
+        assertThrows(UnsupportedOperationException.class, () -> team.getPlayers().add(player3));
+        assertThrows(IllegalStateException.class, () -> team.reset());
+    }
+
+    @Test
+    @DisplayName("Should return defensive copies while open")
+    void shouldReturnDefensiveCopiesWhileOpen() {
+        // Given
+        team.add(player1);
+
+        // When
+        var copy = team.getPlayers();
+        copy.add(player3);
+
+        // Then
+        assertFalse(team.isSealed());
+        assertNotSame(copy, team.getPlayers());
+        assertEquals(1, team.getPlayers().size());
+    }
+}
@@ -12,7 +12,6 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import io.github.brunoborges.teammaker.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.File;
 import java.io.IOException;
@@ -37,7 +36,8 @@ public class TeamMakerFXApp extends Application {
     private Label maxScoreLabel;
     private TextArea resultsArea;
     private TabPane tabPane;
-    private ObjectMapper objectMapper = new ObjectMapper();
+    // Constraints of the last loaded file, which the editor does not show but saves back
+    private TeamMakerConfig rules = new TeamMakerConfig();
 
     @Override
     public void start(Stage primaryStage) {
@@ -528,10 +528,11 @@ public class TeamMakerFXApp extends Application {
         sb.append("─".repeat(60)).append("\n");
         sb.append(String.format("Total Teams: %d\n", teams.size()));
         
-        double avgStrength = teams.stream().mapToDouble(Team::getScore).average().orElse(0.0);
-        double minStrength = teams.stream().mapToDouble(Team::getScore).min().orElse(0.0);
-        double maxStrength = teams.stream().mapToDouble(Team::getScore).max().orElse(0.0);
-        double difference = maxStrength - minStrength;
+        TeamStatistics statistics = result.getStatistics();
+        double avgStrength = statistics.getMean();
+        double minStrength = statistics.getMinimum();
+        double maxStrength = statistics.getMaximum();
+        double difference = statistics.getSpread();
         
         sb.append(String.format("Average Team Rating: %.1f\n", avgStrength));
         sb.append(String.format("Rating Range: %.1f - %.1f\n", minStrength, maxStrength));
@@ -613,7 +614,10 @@ public class TeamMakerFXApp extends Application {
         File file = fileChooser.showOpenDialog(stage);
         if (file != null) {
             try {
-                TeamMakerConfig config = objectMapper.readValue(file, TeamMakerConfig.class);
+                // Parse without validation so work in progress, such as an
+                // uneven roster, can be reopened
+                TeamMakerConfig config = JsonConfigLoader.parseFile(file.toPath());
+                rules = config;
                 
                 // Load players
                 players.clear();
@@ -632,7 +636,7 @@ public class TeamMakerFXApp extends Application {
                 
                 showInfo("Configuration Loaded", "Configuration loaded successfully from " + file.getName());
                 
-            } catch (IOException e) {
+            } catch (IOException | IllegalArgumentException e) {
                 showAlert("Error", "Failed to load configuration: " + e.getMessage());
             }
         }
@@ -661,8 +665,16 @@ public class TeamMakerFXApp extends Application {
                     new ArrayList<>(teamNames),
                     new TeamMakerConfig.ScoreScale(minScoreSlider.getValue(), maxScoreSlider.getValue())
                 );
+                if (rules.getScoreScale() != null) {
+                    config.getScoreScale().setPrecision(rules.getScoreScale().getPrecision());
+                }
+                config.setPins(rules.getPins());
+                config.setTogether(rules.getTogether());
+                config.setApart(rules.getApart());
+                config.setTags(rules.getTags());
+                config.setQuotas(rules.getQuotas());
                 
-                objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, config);
+                JsonConfigLoader.saveToFile(config, file.toPath());
                 showInfo("Configuration Saved", "Configuration saved successfully to " + file.getName());
                 
             } catch (IOException e) {
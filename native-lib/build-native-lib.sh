@@ -0,0 +1,44 @@
+#!/bin/bash
+
+echo "🚀 TeamMaker Native Library Builder"
+echo "===================================="
+
+cd "$(dirname "$0")"
+
+# Check if native-image is available
+if ! command -v native-image &> /dev/null; then
+    echo ""
+    echo "❌ GraalVM native-image not found!"
+    echo ""
+    echo "Install GraalVM as described in cli/build-native.sh, then run this script again."
+    exit 1
+fi
+
+echo "✅ GraalVM native-image found!"
+native-image --version
+
+echo ""
+echo "🔧 Building libteammaker.so..."
+
+# Install core for the module, then build the shared library through the parent profile
+(cd .. && mvn -q install -pl core -DskipTests) || exit 1
+(cd .. && mvn -Pnative-lib package -pl native-lib -DskipTests) || {
+    echo ""
+    echo "❌ Native library build failed. Check the output above for errors."
+    exit 1
+}
+
+echo ""
+echo "🧪 Building and running the C test harness..."
+
+cc -std=c11 -Wall -Werror -I target -o target/teammaker_test src/test/c/teammaker_test.c \
+    -L target -lteammaker -lm || exit 1
+LD_LIBRARY_PATH=target ./target/teammaker_test || {
+    echo ""
+    echo "❌ C test harness failed."
+    exit 1
+}
+
+echo ""
+echo "🎉 Native library built successfully!"
+ls -lh target/libteammaker.so target/libteammaker.h
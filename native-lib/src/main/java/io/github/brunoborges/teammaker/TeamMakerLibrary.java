@@ -0,0 +1,124 @@
+package io.github.brunoborges.teammaker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.c.function.CEntryPoint;
+import org.graalvm.nativeimage.c.type.CDoublePointer;
+import org.graalvm.nativeimage.c.type.CIntPointer;
+
+/**
+ * C entry points of {@code libteammaker}, the embeddable shared library.
+ * <p>
+ * Callers pass packed score arrays and receive assignment arrays; no JSON or
+ * player names are involved. Draws run on the core {@link DrawContext}
+ * engine. Each call needs an isolate thread, created once per thread with
+ * {@code graal_create_isolate} or {@code graal_attach_thread} from
+ * {@code graal_isolate.h}:
+ * <pre>
+ * graal_isolate_t *isolate;
+ * graal_isolatethread_t *thread;
+ * graal_create_isolate(NULL, &amp;isolate, &amp;thread);
+ * int status = teammaker_draw(thread, scores, 20, 10, 100, team_of, team_sums);
+ * graal_tear_down_isolate(thread);
+ * </pre>
+ */
+public final class TeamMakerLibrary {
+
+    /**
+     * The assignment is balanced.
+     */
+    public static final int BALANCED = 0;
+
+    /**
+     * No balanced assignment was found within the attempts; the output holds
+     * the last draw.
+     */
+    public static final int UNBALANCED = 1;
+
+    /**
+     * A pointer is null, a count is not positive or the players cannot be split
+     * evenly into the teams. Nothing is written.
+     */
+    public static final int INVALID_ARGUMENT = -1;
+
+    /**
+     * The draw failed unexpectedly. Nothing is written.
+     */
+    public static final int FAILURE = -2;
+
+    private TeamMakerLibrary() {
+    }
+
+    /**
+     * Draw players into teams until the teams are balanced.
+     *
+     * @param thread      the current isolate thread
+     * @param scores      {@code playerCount} player scores
+     * @param playerCount number of players
+     * @param teamCount   number of teams; must divide {@code playerCount}
+     * @param maxAttempts maximum number of draws
+     * @param teamOf      receives {@code playerCount} team indices, one per player
+     * @param teamSums    receives {@code teamCount} team scores, or null if not needed
+     * @return {@link #BALANCED}, {@link #UNBALANCED}, {@link #INVALID_ARGUMENT} or {@link #FAILURE}
+     */
+    @CEntryPoint(name = "teammaker_draw")
+    static int draw(IsolateThread thread, CDoublePointer scores, int playerCount, int teamCount, int maxAttempts,
+            CIntPointer teamOf, CDoublePointer teamSums) {
+        if (scores.isNull() || teamOf.isNull()) {
+            return INVALID_ARGUMENT;
+        }
+        try {
+            double[] input = new double[Math.max(playerCount, 0)];
+            for (int i = 0; i < input.length; i++) {
+                input[i] = scores.read(i);
+            }
+            int[] assignment = new int[input.length];
+            double[] sums = new double[Math.max(teamCount, 0)];
+            int status = draw(input, teamCount, maxAttempts, assignment, sums);
+            if (status >= 0) {
+                for (int i = 0; i < assignment.length; i++) {
+                    teamOf.write(i, assignment[i]);
+                }
+                if (teamSums.isNonNull()) {
+                    for (int t = 0; t < sums.length; t++) {
+                        teamSums.write(t, sums[t]);
+                    }
+                }
+            }
+            return status;
+        } catch (Throwable e) {
+            // Exceptions must not cross the C boundary
+            return FAILURE;
+        }
+    }
+
+    /**
+     * The Java side of {@link #draw(IsolateThread, CDoublePointer, int, int, int, CIntPointer, CDoublePointer)},
+     * on heap arrays.
+     */
+    static int draw(double[] scores, int teamCount, int maxAttempts, int[] teamOf, double[] teamSums) {
+        int playerCount = scores.length;
+        if (playerCount == 0 || teamCount < 1 || maxAttempts < 1 || playerCount % teamCount != 0) {
+            return INVALID_ARGUMENT;
+        }
+        List<Player> players = new ArrayList<>(playerCount);
+        for (double score : scores) {
+            if (!Double.isFinite(score)) {
+                return INVALID_ARGUMENT;
+            }
+            players.add(new Player("", score));
+        }
+
+        DrawContext context = new DrawContext(players, playerCount / teamCount);
+        boolean balanced = context.drawUntilBalanced(maxAttempts);
+        Arrays.fill(teamSums, 0);
+        for (int i = 0; i < playerCount; i++) {
+            int team = context.teamOf(i);
+            teamOf[i] = team;
+            teamSums[team] += scores[i];
+        }
+        return balanced ? BALANCED : UNBALANCED;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Smoke test for libteammaker. Build and run with ../../../build-native-lib.sh.
+ */
+#include <stdio.h>
+#include <stdlib.h>
+#include <math.h>
+
+#include "graal_isolate.h"
+#include "libteammaker.h"
+
+#define PLAYERS 20
+#define TEAMS 10
+
+static int failures = 0;
+
+static void check(int condition, const char *message) {
+    if (!condition) {
+        fprintf(stderr, "FAIL: %s\n", message);
+        failures++;
+    }
+}
+
+int main(void) {
+    graal_isolate_t *isolate = NULL;
+    graal_isolatethread_t *thread = NULL;
+    if (graal_create_isolate(NULL, &isolate, &thread) != 0) {
+        fprintf(stderr, "FAIL: cannot create isolate\n");
+        return 1;
+    }
+
+    double scores[PLAYERS] = {3, 2, 3, 4, 3, 4, 4, 4, 3, 3, 2, 4, 3, 3, 3, 3, 3, 4, 3, 2};
+    int team_of[PLAYERS];
+    double team_sums[TEAMS];
+
+    int status = teammaker_draw(thread, scores, PLAYERS, TEAMS, 100, team_of, team_sums);
+    check(status == 0 || status == 1, "draw should succeed");
+
+    int sizes[TEAMS] = {0};
+    double sums[TEAMS] = {0};
+    for (int i = 0; i < PLAYERS; i++) {
+        check(team_of[i] >= 0 && team_of[i] < TEAMS, "team index should be in range");
+        if (team_of[i] >= 0 && team_of[i] < TEAMS) {
+            sizes[team_of[i]]++;
+            sums[team_of[i]] += scores[i];
+        }
+    }
+    for (int t = 0; t < TEAMS; t++) {
+        check(sizes[t] == PLAYERS / TEAMS, "every team should have the same size");
+        check(fabs(sums[t] - team_sums[t]) < 1e-9, "team sums should match the assignment");
+    }
+
+    check(teammaker_draw(thread, scores, PLAYERS, 3, 100, team_of, NULL) == -1,
+          "uneven split should be rejected");
+    check(teammaker_draw(thread, NULL, PLAYERS, TEAMS, 100, team_of, NULL) == -1,
+          "null scores should be rejected");
+
+    graal_tear_down_isolate(thread);
+
+    if (failures > 0) {
+        fprintf(stderr, "%d check(s) failed\n", failures);
+        return 1;
+    }
+    printf("libteammaker: all checks passed (status %d)\n", status);
+    return 0;
+}